@@ -0,0 +1,25 @@
+package ru.noties.requirements.cases;
+
+import android.bluetooth.BluetoothAdapter;
+import android.content.Intent;
+import android.support.annotation.NonNull;
+
+/**
+ * Case that is satisfied when Bluetooth is enabled. Backed by a single Bluetooth state broadcast
+ * receiver. Default resolution shows the system dialog that asks user to enable Bluetooth.
+ * Requires `android.permission.BLUETOOTH` (declared by this module)
+ *
+ * @since 1.2.0
+ */
+public class BluetoothCase<T> extends SystemStateCase<T> {
+
+    public BluetoothCase() {
+        super(BluetoothState.instance(), BluetoothCase.class);
+    }
+
+    @NonNull
+    @Override
+    protected Intent settingsIntent() {
+        return new Intent(BluetoothAdapter.ACTION_REQUEST_ENABLE);
+    }
+}
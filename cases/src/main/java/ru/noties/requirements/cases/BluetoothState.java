@@ -0,0 +1,43 @@
+package ru.noties.requirements.cases;
+
+import android.bluetooth.BluetoothAdapter;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.support.annotation.NonNull;
+
+// @since 1.2.0
+class BluetoothState extends SystemState {
+
+    @NonNull
+    static BluetoothState instance() {
+        return Holder.INSTANCE;
+    }
+
+    @Override
+    void register(@NonNull Context appContext) {
+        appContext.registerReceiver(new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                // state is a part of the broadcast, no need to query the adapter
+                final int state = intent.getIntExtra(BluetoothAdapter.EXTRA_STATE, BluetoothAdapter.ERROR);
+                update(BluetoothAdapter.STATE_ON == state);
+            }
+        }, new IntentFilter(BluetoothAdapter.ACTION_STATE_CHANGED));
+    }
+
+    @Override
+    boolean read(@NonNull Context appContext) {
+        // null if device has no Bluetooth
+        final BluetoothAdapter adapter = BluetoothAdapter.getDefaultAdapter();
+        return adapter != null && adapter.isEnabled();
+    }
+
+    private static class Holder {
+        static final BluetoothState INSTANCE = new BluetoothState();
+    }
+
+    private BluetoothState() {
+    }
+}
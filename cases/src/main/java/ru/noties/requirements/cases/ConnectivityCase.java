@@ -0,0 +1,26 @@
+package ru.noties.requirements.cases;
+
+import android.content.Intent;
+import android.provider.Settings;
+import android.support.annotation.NonNull;
+
+/**
+ * Case that is satisfied when device has active network connection. Backed by a single
+ * default network callback (API 24+) or connectivity broadcast receiver. Since API 23 the network
+ * must be validated by the system, so a network behind a captive portal does not satisfy this case.
+ * Requires `android.permission.ACCESS_NETWORK_STATE` (declared by this module)
+ *
+ * @since 1.2.0
+ */
+public class ConnectivityCase<T> extends SystemStateCase<T> {
+
+    public ConnectivityCase() {
+        super(ConnectivityState.instance(), ConnectivityCase.class);
+    }
+
+    @NonNull
+    @Override
+    protected Intent settingsIntent() {
+        return new Intent(Settings.ACTION_WIRELESS_SETTINGS);
+    }
+}
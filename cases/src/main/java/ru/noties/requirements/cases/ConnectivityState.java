@@ -0,0 +1,95 @@
+package ru.noties.requirements.cases;
+
+import android.annotation.TargetApi;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkInfo;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+// @since 1.2.0
+class ConnectivityState extends SystemState {
+
+    @NonNull
+    static ConnectivityState instance() {
+        return Holder.INSTANCE;
+    }
+
+    @Override
+    void register(@NonNull final Context appContext) {
+        final ConnectivityManager manager = manager(appContext);
+        if (manager != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            registerCallback(manager);
+        } else {
+            appContext.registerReceiver(new BroadcastReceiver() {
+                @Override
+                public void onReceive(Context context, Intent intent) {
+                    update(read(appContext));
+                }
+            }, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION));
+        }
+    }
+
+    @Override
+    boolean read(@NonNull Context appContext) {
+        final ConnectivityManager manager = manager(appContext);
+        if (manager == null) {
+            return false;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            return isValidated(manager, manager.getActiveNetwork());
+        }
+        final NetworkInfo info = manager.getActiveNetworkInfo();
+        return info != null && info.isConnected();
+    }
+
+    @TargetApi(Build.VERSION_CODES.N)
+    private void registerCallback(@NonNull final ConnectivityManager manager) {
+        // default network callback reports only the network that is used by the application
+        manager.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(Network network) {
+                // a network is available before it is validated (for example behind a captive portal),
+                // validation is reported with onCapabilitiesChanged
+                update(isValidated(manager, network));
+            }
+
+            @Override
+            public void onCapabilitiesChanged(Network network, NetworkCapabilities capabilities) {
+                update(capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED));
+            }
+
+            @Override
+            public void onLost(Network network) {
+                update(false);
+            }
+        });
+    }
+
+    // connected network that provides internet access (validated by the system)
+    @TargetApi(Build.VERSION_CODES.M)
+    private static boolean isValidated(@NonNull ConnectivityManager manager, @Nullable Network network) {
+        final NetworkCapabilities capabilities = network != null
+                ? manager.getNetworkCapabilities(network)
+                : null;
+        return capabilities != null
+                && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED);
+    }
+
+    private static ConnectivityManager manager(@NonNull Context context) {
+        return (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+    }
+
+    private static class Holder {
+        static final ConnectivityState INSTANCE = new ConnectivityState();
+    }
+
+    private ConnectivityState() {
+    }
+}
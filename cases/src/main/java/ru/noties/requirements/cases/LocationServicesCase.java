@@ -0,0 +1,24 @@
+package ru.noties.requirements.cases;
+
+import android.content.Intent;
+import android.provider.Settings;
+import android.support.annotation.NonNull;
+
+/**
+ * Case that is satisfied when GPS or network location provider is enabled. Backed by a single
+ * providers changed broadcast receiver
+ *
+ * @since 1.2.0
+ */
+public class LocationServicesCase<T> extends SystemStateCase<T> {
+
+    public LocationServicesCase() {
+        super(LocationServicesState.instance(), LocationServicesCase.class);
+    }
+
+    @NonNull
+    @Override
+    protected Intent settingsIntent() {
+        return new Intent(Settings.ACTION_LOCATION_SOURCE_SETTINGS);
+    }
+}
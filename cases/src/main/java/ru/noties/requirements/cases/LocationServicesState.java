@@ -0,0 +1,42 @@
+package ru.noties.requirements.cases;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.location.LocationManager;
+import android.support.annotation.NonNull;
+
+// @since 1.2.0
+class LocationServicesState extends SystemState {
+
+    @NonNull
+    static LocationServicesState instance() {
+        return Holder.INSTANCE;
+    }
+
+    @Override
+    void register(@NonNull final Context appContext) {
+        appContext.registerReceiver(new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                update(read(appContext));
+            }
+        }, new IntentFilter(LocationManager.PROVIDERS_CHANGED_ACTION));
+    }
+
+    @Override
+    boolean read(@NonNull Context appContext) {
+        final LocationManager manager = (LocationManager) appContext.getSystemService(Context.LOCATION_SERVICE);
+        return manager != null
+                && (manager.isProviderEnabled(LocationManager.GPS_PROVIDER)
+                || manager.isProviderEnabled(LocationManager.NETWORK_PROVIDER));
+    }
+
+    private static class Holder {
+        static final LocationServicesState INSTANCE = new LocationServicesState();
+    }
+
+    private LocationServicesState() {
+    }
+}
@@ -0,0 +1,35 @@
+package ru.noties.requirements.cases;
+
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Build;
+import android.provider.Settings;
+import android.support.annotation.NonNull;
+
+/**
+ * Case that is satisfied when notifications of the application are enabled (always satisfied
+ * before API 24). There is no system callback for this setting, so state is read again only when
+ * an activity is resumed (it can be changed only in the Settings application)
+ *
+ * @since 1.2.0
+ */
+public class NotificationsCase<T> extends SystemStateCase<T> {
+
+    public NotificationsCase() {
+        super(NotificationsState.instance(), NotificationsCase.class);
+    }
+
+    @NonNull
+    @Override
+    protected Intent settingsIntent() {
+        final String packageName = appContext().getPackageName();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            return new Intent(Settings.ACTION_APP_NOTIFICATION_SETTINGS)
+                    .putExtra(Settings.EXTRA_APP_PACKAGE, packageName);
+        }
+        return new Intent(
+                Settings.ACTION_APPLICATION_DETAILS_SETTINGS,
+                Uri.fromParts("package", packageName, null)
+        );
+    }
+}
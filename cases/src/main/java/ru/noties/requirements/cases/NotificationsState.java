@@ -0,0 +1,90 @@
+package ru.noties.requirements.cases;
+
+import android.annotation.TargetApi;
+import android.app.Activity;
+import android.app.Application;
+import android.app.NotificationManager;
+import android.content.Context;
+import android.os.Build;
+import android.os.Bundle;
+import android.support.annotation.NonNull;
+
+// @since 1.2.0
+class NotificationsState extends SystemState {
+
+    @NonNull
+    static NotificationsState instance() {
+        return Holder.INSTANCE;
+    }
+
+    @Override
+    void register(@NonNull final Context appContext) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N
+                && appContext instanceof Application) {
+            ((Application) appContext).registerActivityLifecycleCallbacks(new Callbacks(appContext));
+        }
+    }
+
+    @Override
+    boolean read(@NonNull Context appContext) {
+        return Build.VERSION.SDK_INT < Build.VERSION_CODES.N
+                || areNotificationsEnabled(appContext);
+    }
+
+    @TargetApi(Build.VERSION_CODES.N)
+    private static boolean areNotificationsEnabled(@NonNull Context context) {
+        final NotificationManager manager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        return manager == null || manager.areNotificationsEnabled();
+    }
+
+    private class Callbacks implements Application.ActivityLifecycleCallbacks {
+
+        private final Context appContext;
+
+        Callbacks(@NonNull Context appContext) {
+            this.appContext = appContext;
+        }
+
+        @Override
+        public void onActivityResumed(Activity activity) {
+            update(read(appContext));
+        }
+
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+
+        }
+
+        @Override
+        public void onActivityStarted(Activity activity) {
+
+        }
+
+        @Override
+        public void onActivityPaused(Activity activity) {
+
+        }
+
+        @Override
+        public void onActivityStopped(Activity activity) {
+
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+
+        }
+
+        @Override
+        public void onActivityDestroyed(Activity activity) {
+
+        }
+    }
+
+    private static class Holder {
+        static final NotificationsState INSTANCE = new NotificationsState();
+    }
+
+    private NotificationsState() {
+    }
+}
@@ -0,0 +1,75 @@
+package ru.noties.requirements.cases;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Process-wide cached state of a system setting. A single system callback is registered (with
+ * application Context) on first read, afterwards reads are memory reads. When the callback reports
+ * a change, all cases of this state are notified.
+ */
+// @since 1.2.0
+abstract class SystemState {
+
+    private final List<WeakReference<SystemStateCase<?>>> cases = new CopyOnWriteArrayList<>();
+
+    private volatile boolean isRegistered;
+    private volatile boolean value;
+
+    boolean get(@NonNull Context context) {
+        if (!isRegistered) {
+            synchronized (this) {
+                if (!isRegistered) {
+                    final Context appContext = context.getApplicationContext();
+                    register(appContext);
+                    value = read(appContext);
+                    isRegistered = true;
+                }
+            }
+        }
+        return value;
+    }
+
+    // reads state directly (for example when returning from the Settings screen, before the callback is received)
+    boolean refresh(@NonNull Context context) {
+        final boolean value = read(context.getApplicationContext());
+        update(value);
+        return value;
+    }
+
+    void addCase(@NonNull SystemStateCase<?> systemStateCase) {
+        for (WeakReference<SystemStateCase<?>> reference : cases) {
+            final SystemStateCase<?> added = reference.get();
+            if (added == systemStateCase) {
+                return;
+            }
+            if (added == null) {
+                cases.remove(reference);
+            }
+        }
+        cases.add(new WeakReference<SystemStateCase<?>>(systemStateCase));
+    }
+
+    // registers system callback that calls update
+    abstract void register(@NonNull Context appContext);
+
+    // reads current state with a system call
+    abstract boolean read(@NonNull Context appContext);
+
+    // can be called from any thread
+    void update(boolean value) {
+        if (this.value != value) {
+            this.value = value;
+            for (WeakReference<SystemStateCase<?>> reference : cases) {
+                final SystemStateCase<?> systemStateCase = reference.get();
+                if (systemStateCase != null) {
+                    systemStateCase.onStateChanged();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package ru.noties.requirements.cases;
+
+import android.content.Intent;
+import android.support.annotation.NonNull;
+
+import ru.noties.requirements.RequestCode;
+import ru.noties.requirements.RequirementCase;
+
+/**
+ * Base class of stock cases that are backed by a process-wide cached system state, so
+ * {@link #meetsRequirement()} is a memory read. These cases are observable: requirements are
+ * notified when state changes. Default resolution navigates to a Settings screen
+ * ({@link #navigateToSettings()}), override {@link #startResolution()} to show an explanation first.
+ *
+ * @see ConnectivityCase
+ * @see LocationServicesCase
+ * @see BluetoothCase
+ * @see NotificationsCase
+ * @since 1.2.0
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public abstract class SystemStateCase<T> extends RequirementCase<T> {
+
+    private final SystemState state;
+    private final int requestCode;
+
+    SystemStateCase(@NonNull SystemState state, @NonNull Class<?> type) {
+        this.state = state;
+        this.requestCode = RequestCode.createRequestCode(type);
+    }
+
+    /**
+     * @return Intent of a screen where user can change this setting
+     */
+    @NonNull
+    protected abstract Intent settingsIntent();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean meetsRequirement() {
+        return state.get(appContext());
+    }
+
+    /**
+     * Navigates to a Settings screen ({@link #navigateToSettings()})
+     */
+    @Override
+    public void startResolution() {
+        navigateToSettings();
+    }
+
+    /**
+     * Opens {@link #settingsIntent()}. Result is delivered when user returns
+     */
+    protected void navigateToSettings() {
+        startActivityForResult(settingsIntent(), requestCode);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean onActivityResult(int requestCode, int resultCode, Intent data) {
+        if (this.requestCode == requestCode) {
+            deliverResult(state.refresh(appContext()));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Cached state is updated by a system callback
+     */
+    @Override
+    public boolean isObservable() {
+        return true;
+    }
+
+    /**
+     * Subscribes to changes of cached state (when a requirement with this case is built)
+     */
+    @Override
+    protected void onObserved() {
+        state.addCase(this);
+    }
+
+    /**
+     * All instances of the same case are equal (state is process-wide)
+     */
+    @NonNull
+    @Override
+    public String identityKey() {
+        return "system:" + getClass().getName();
+    }
+
+    public int requestCode() {
+        return requestCode;
+    }
+
+    void onStateChanged() {
+        notifyChanged();
+    }
+}
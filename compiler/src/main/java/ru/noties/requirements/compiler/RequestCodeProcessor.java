@@ -0,0 +1,410 @@
+package ru.noties.requirements.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates `RequirementRequestCodes` class for each package that contains RequirementCase classes
+ * annotated with `ru.noties.requirements.GenerateRequestCode`. Generated constants have the same
+ * values as `RequestCode.createRequestCode(Class)` returns. Fails compilation if two annotated
+ * classes share a request code or a constant name, or if a constant name is not a valid Java identifier.
+ * <p>
+ * Sources are generated in the round in which annotated classes of a package are found (not in
+ * the last round, so generated sources are processed as usual). All annotated classes of a package
+ * must arrive in the same round: a class of an already generated package (for example generated by
+ * another processor in a later round) fails compilation. For each package an index class is generated
+ * in {@link #INDEX_PACKAGE}, so request codes of other modules (found on the classpath) are checked
+ * for collisions as well.
+ */
+public class RequestCodeProcessor extends AbstractProcessor {
+
+    static final String ANNOTATION = "ru.noties.requirements.GenerateRequestCode";
+    static final String REQUIREMENT_CASE = "ru.noties.requirements.RequirementCase";
+
+    static final String CLASS_NAME = "RequirementRequestCodes";
+
+    // package of index classes (one for each package with annotated classes of each module)
+    static final String INDEX_PACKAGE = "ru.noties.requirements.compiler.index";
+    static final String INDEX_PREFIX = "RequestCodes_";
+
+    // must be kept in sync with ru.noties.requirements.RequestCode#MAX
+    static final int MAX = 0xffff;
+
+    private Elements elements;
+    private Types types;
+    private Filer filer;
+    private Messager messager;
+
+    // request code -> description of its owner, across all packages and rounds of this compilation
+    // and request codes of other modules
+    private final Map<Integer, String> codes = new HashMap<>();
+
+    // package -> (constant name -> entry) of current round, ordered so generated source is stable
+    private final Map<String, Map<String, Entry>> packages = new LinkedHashMap<>();
+
+    // packages which sources are generated in previous rounds
+    private final Set<String> generated = new HashSet<>();
+
+    private boolean isIndexLoaded;
+    private boolean hasErrors;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        elements = processingEnv.getElementUtils();
+        types = processingEnv.getTypeUtils();
+        filer = processingEnv.getFiler();
+        messager = processingEnv.getMessager();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(ANNOTATION);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+
+        final TypeElement annotation = elements.getTypeElement(ANNOTATION);
+        if (annotation == null) {
+            return false;
+        }
+
+        if (!isIndexLoaded) {
+            isIndexLoaded = true;
+            loadIndex();
+        }
+
+        final TypeElement requirementCase = elements.getTypeElement(REQUIREMENT_CASE);
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@GenerateRequestCode can be applied only to classes");
+                continue;
+            }
+
+            final TypeElement type = (TypeElement) element;
+
+            if (requirementCase != null
+                    && !types.isSubtype(types.erasure(type.asType()), types.erasure(requirementCase.asType()))) {
+                error(element, "@GenerateRequestCode can be applied only to subclasses of " + REQUIREMENT_CASE);
+                continue;
+            }
+
+            final String binaryName = elements.getBinaryName(type).toString();
+            final int code = requestCode(binaryName);
+
+            final String previous = codes.get(code);
+            if (previous != null) {
+                error(element, "Request code " + code + " of " + binaryName + " collides with "
+                        + previous + ". Please rename one of them or use custom request code");
+                continue;
+            }
+
+            final String name = constantName(type);
+
+            if (!isConstantName(name)) {
+                error(element, "`" + name + "` is not a valid Java identifier. Please specify a valid "
+                        + "constant name: @GenerateRequestCode(\"NAME\")");
+                continue;
+            }
+
+            final String packageName = packageName(type);
+
+            if (generated.contains(packageName)) {
+                error(element, "Request codes of package " + packageName + " are already generated in "
+                        + "a previous round. Classes annotated with @GenerateRequestCode that are generated "
+                        + "by other processors must be placed in another package");
+                continue;
+            }
+
+            Map<String, Entry> entries = packages.get(packageName);
+            if (entries == null) {
+                entries = new LinkedHashMap<>();
+                packages.put(packageName, entries);
+            }
+
+            if (entries.containsKey(name)) {
+                error(element, "Duplicate request code constant name `" + name + "` in package "
+                        + packageName + ". Please specify it explicitly: @GenerateRequestCode(\"NAME\")");
+                continue;
+            }
+
+            codes.put(code, binaryName);
+            entries.put(name, new Entry(type, binaryName, code));
+        }
+
+        // sources created in the last round are not processed (and javac warns about them)
+        if (!hasErrors) {
+            for (Map.Entry<String, Map<String, Entry>> entry : packages.entrySet()) {
+                write(entry.getKey(), entry.getValue());
+                generated.add(entry.getKey());
+            }
+        }
+        packages.clear();
+
+        return true;
+    }
+
+    // request codes generated by other modules (their index classes are on the classpath)
+    private void loadIndex() {
+
+        final PackageElement index = elements.getPackageElement(INDEX_PACKAGE);
+        if (index == null) {
+            return;
+        }
+
+        for (Element type : index.getEnclosedElements()) {
+            final String packageName = indexPackageName(type.getSimpleName().toString());
+            for (Element field : type.getEnclosedElements()) {
+                if (field.getKind() == ElementKind.FIELD) {
+                    final Object value = ((VariableElement) field).getConstantValue();
+                    if (value instanceof Integer) {
+                        codes.put((Integer) value, qualifiedName(packageName, CLASS_NAME) + "."
+                                + field.getSimpleName() + " (of another module)");
+                    }
+                }
+            }
+        }
+    }
+
+    static boolean isConstantName(String name) {
+        return SourceVersion.isIdentifier(name) && !SourceVersion.isKeyword(name);
+    }
+
+    // the same mangling as JNI uses: `.` -> `_`, `_` -> `_1` (a package name part cannot start with a digit)
+    static String indexClassName(String packageName) {
+        return INDEX_PREFIX + packageName.replace("_", "_1").replace('.', '_');
+    }
+
+    static String indexPackageName(String indexClassName) {
+        final String name = indexClassName.substring(INDEX_PREFIX.length());
+        final StringBuilder builder = new StringBuilder(name.length());
+        for (int i = 0, length = name.length(); i < length; i++) {
+            final char c = name.charAt(i);
+            if (c == '_') {
+                if (i + 1 < length && name.charAt(i + 1) == '1') {
+                    builder.append('_');
+                    i += 1;
+                } else {
+                    builder.append('.');
+                }
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String qualifiedName(String packageName, String simpleName) {
+        return packageName.length() > 0
+                ? packageName + "." + simpleName
+                : simpleName;
+    }
+
+    // the same as ru.noties.requirements.RequestCode#createRequestCode(String)
+    static int requestCode(String name) {
+        return Math.abs(name.hashCode() % MAX);
+    }
+
+    private String packageName(TypeElement type) {
+        final PackageElement packageElement = elements.getPackageOf(type);
+        return packageElement.isUnnamed()
+                ? ""
+                : packageElement.getQualifiedName().toString();
+    }
+
+    private String constantName(TypeElement type) {
+
+        final String value = annotationValue(type);
+        if (value != null && value.length() > 0) {
+            return value;
+        }
+
+        // nested classes: Outer.Inner -> OUTER_INNER
+        final List<String> names = new ArrayList<>(2);
+        Element element = type;
+        while (element != null && element.getKind() != ElementKind.PACKAGE) {
+            names.add(0, element.getSimpleName().toString());
+            element = element.getEnclosingElement();
+        }
+
+        final StringBuilder builder = new StringBuilder();
+        for (String name : names) {
+            if (builder.length() > 0) {
+                builder.append('_');
+            }
+            builder.append(upperSnakeCase(name));
+        }
+        return builder.toString();
+    }
+
+    private String annotationValue(TypeElement type) {
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            final TypeMirror annotationType = mirror.getAnnotationType();
+            if (ANNOTATION.equals(annotationType.toString())) {
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                    if ("value".contentEquals(entry.getKey().getSimpleName())) {
+                        return (String) entry.getValue().getValue();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    static String upperSnakeCase(String name) {
+        final StringBuilder builder = new StringBuilder(name.length() + 4);
+        for (int i = 0, length = name.length(); i < length; i++) {
+            final char c = name.charAt(i);
+            if (Character.isUpperCase(c)
+                    && i > 0
+                    && (Character.isLowerCase(name.charAt(i - 1))
+                    || (i + 1 < length && Character.isLowerCase(name.charAt(i + 1))))) {
+                builder.append('_');
+            }
+            builder.append(Character.toUpperCase(c));
+        }
+        return builder.toString();
+    }
+
+    private void write(String packageName, Map<String, Entry> entries) {
+
+        final List<Element> originating = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            originating.add(entry.type);
+        }
+        final Element[] elements = originating.toArray(new Element[originating.size()]);
+
+        write(qualifiedName(packageName, CLASS_NAME), source(packageName, entries), elements);
+        write(INDEX_PACKAGE + "." + indexClassName(packageName), index(packageName, entries), elements);
+    }
+
+    private static String source(String packageName, Map<String, Entry> entries) {
+
+        final StringBuilder builder = new StringBuilder();
+
+        builder.append("// Generated by requirements-compiler. Do not edit.\n");
+        if (packageName.length() > 0) {
+            builder.append("package ").append(packageName).append(";\n\n");
+        }
+
+        builder.append("public abstract class ").append(CLASS_NAME).append(" {\n\n");
+
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            builder.append("    // ").append(entry.getValue().binaryName).append('\n')
+                    .append("    public static final int ").append(entry.getKey())
+                    .append(" = ").append(entry.getValue().code).append(";\n\n");
+        }
+
+        builder.append("    /**\n")
+                .append("     * @return a boolean indicating if supplied request code belongs to a case of this package\n")
+                .append("     */\n")
+                .append("    public static boolean contains(int requestCode) {\n")
+                .append("        switch (requestCode) {\n");
+        for (String name : entries.keySet()) {
+            builder.append("            case ").append(name).append(":\n");
+        }
+        builder.append("                return true;\n")
+                .append("            default:\n")
+                .append("                return false;\n")
+                .append("        }\n")
+                .append("    }\n\n")
+                .append("    private ").append(CLASS_NAME).append("() {\n")
+                .append("    }\n")
+                .append("}\n");
+
+        return builder.toString();
+    }
+
+    // request codes of a package for collision checks of modules that depend on this one
+    private static String index(String packageName, Map<String, Entry> entries) {
+
+        final String className = indexClassName(packageName);
+
+        final StringBuilder builder = new StringBuilder();
+
+        builder.append("// Generated by requirements-compiler. Do not edit.\n")
+                .append("package ").append(INDEX_PACKAGE).append(";\n\n")
+                .append("// request codes of ").append(qualifiedName(packageName, CLASS_NAME)).append('\n')
+                .append("public abstract class ").append(className).append(" {\n\n");
+
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            builder.append("    public static final int ").append(entry.getKey())
+                    .append(" = ").append(entry.getValue().code).append(";\n\n");
+        }
+
+        builder.append("    private ").append(className).append("() {\n")
+                .append("    }\n")
+                .append("}\n");
+
+        return builder.toString();
+    }
+
+    private void write(String qualifiedName, String source, Element[] originating) {
+        try {
+            final JavaFileObject file = filer.createSourceFile(qualifiedName, originating);
+            final Writer writer = file.openWriter();
+            try {
+                writer.write(source);
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Cannot write " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    private void error(Element element, String message) {
+        hasErrors = true;
+        messager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private static class Entry {
+
+        // element of current round
+        final TypeElement type;
+        final String binaryName;
+        final int code;
+
+        Entry(TypeElement type, String binaryName, int code) {
+            this.type = type;
+            this.binaryName = binaryName;
+            this.code = code;
+        }
+    }
+}
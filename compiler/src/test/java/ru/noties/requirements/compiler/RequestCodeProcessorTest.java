@@ -0,0 +1,237 @@
+package ru.noties.requirements.compiler;
+
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.JavaFileObjects;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.JavaFileObject;
+
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
+import static org.junit.Assert.assertEquals;
+
+public class RequestCodeProcessorTest {
+
+    private static final JavaFileObject ANNOTATION = JavaFileObjects.forSourceString(
+            "ru.noties.requirements.GenerateRequestCode",
+            "package ru.noties.requirements;\n" +
+                    "public @interface GenerateRequestCode { String value() default \"\"; }"
+    );
+
+    private static final JavaFileObject REQUIREMENT_CASE = JavaFileObjects.forSourceString(
+            "ru.noties.requirements.RequirementCase",
+            "package ru.noties.requirements;\n" +
+                    "public abstract class RequirementCase {}"
+    );
+
+    @Test
+    public void generates_constants() {
+
+        final Compilation compilation = compile(
+                annotatedCase("com.a", "NetworkCase", null),
+                source("com.a.Usage", "package com.a;\n" +
+                        "class Usage { static final int CODE = RequirementRequestCodes.NETWORK_CASE; }")
+        );
+
+        // sources are not generated in the last round, which javac warns about
+        assertThat(compilation).succeededWithoutWarnings();
+        assertThat(compilation)
+                .generatedSourceFile("com.a.RequirementRequestCodes")
+                .contentsAsUtf8String()
+                .contains("public static final int NETWORK_CASE = " + code("com.a.NetworkCase") + ";");
+    }
+
+    @Test
+    public void nested_class_and_custom_name() {
+
+        final Compilation compilation = compile(
+                source("com.a.Outer", "package com.a;\n" +
+                        "class Outer {\n" +
+                        "  @ru.noties.requirements.GenerateRequestCode\n" +
+                        "  static class InnerCase extends ru.noties.requirements.RequirementCase {}\n" +
+                        "}"),
+                annotatedCase("com.a", "Named", "CUSTOM")
+        );
+
+        assertThat(compilation).succeeded();
+        assertThat(compilation)
+                .generatedSourceFile("com.a.RequirementRequestCodes")
+                .contentsAsUtf8String()
+                .contains("public static final int OUTER_INNER_CASE = " + code("com.a.Outer$InnerCase") + ";");
+        assertThat(compilation)
+                .generatedSourceFile("com.a.RequirementRequestCodes")
+                .contentsAsUtf8String()
+                .contains("public static final int CUSTOM = " + code("com.a.Named") + ";");
+    }
+
+    @Test
+    public void request_code_collision_fails() {
+        // `Aa` and `BB` have the same hash code
+        assertEquals(code("com.a.Aa"), code("com.a.BB"));
+        assertThat(compile(
+                annotatedCase("com.a", "Aa", null),
+                annotatedCase("com.a", "BB", null)
+        )).hadErrorContaining("collides with com.a.Aa");
+    }
+
+    @Test
+    public void duplicate_constant_name_fails() {
+        assertThat(compile(
+                annotatedCase("com.a", "First", "SAME"),
+                annotatedCase("com.a", "Second", "SAME")
+        )).hadErrorContaining("Duplicate request code constant name `SAME`");
+    }
+
+    @Test
+    public void invalid_constant_name_fails() {
+        assertThat(compile(annotatedCase("com.a", "Keyword", "class")))
+                .hadErrorContaining("`class` is not a valid Java identifier");
+        assertThat(compile(annotatedCase("com.a", "Spaces", "MY CASE")))
+                .hadErrorContaining("`MY CASE` is not a valid Java identifier");
+    }
+
+    @Test
+    public void not_requirement_case_fails() {
+        assertThat(compile(source("com.a.Plain", "package com.a;\n" +
+                "@ru.noties.requirements.GenerateRequestCode class Plain {}")))
+                .hadErrorContaining("only to subclasses of");
+    }
+
+    @Test
+    public void packages_over_multiple_rounds() {
+        // second case is generated by another processor, so it arrives in the second round
+        final Compilation compilation = javac()
+                .withProcessors(new GeneratingProcessor("com.b"), new RequestCodeProcessor())
+                .compile(ANNOTATION, REQUIREMENT_CASE, annotatedCase("com.a", "FirstCase", null));
+
+        assertThat(compilation).succeededWithoutWarnings();
+        assertThat(compilation)
+                .generatedSourceFile("com.a.RequirementRequestCodes")
+                .contentsAsUtf8String()
+                .contains("public static final int FIRST_CASE = ");
+        assertThat(compilation)
+                .generatedSourceFile("com.b.RequirementRequestCodes")
+                .contentsAsUtf8String()
+                .contains("public static final int GENERATED_CASE = ");
+    }
+
+    @Test
+    public void package_over_multiple_rounds_fails() {
+        final Compilation compilation = javac()
+                .withProcessors(new GeneratingProcessor("com.a"), new RequestCodeProcessor())
+                .compile(ANNOTATION, REQUIREMENT_CASE, annotatedCase("com.a", "FirstCase", null));
+
+        assertThat(compilation).hadErrorContaining("Request codes of package com.a are already generated");
+    }
+
+    @Test
+    public void generates_index() {
+
+        final Compilation compilation = compile(annotatedCase("com.my_lib", "LibCase", null));
+
+        assertThat(compilation).succeeded();
+        assertThat(compilation)
+                .generatedSourceFile(RequestCodeProcessor.INDEX_PACKAGE + ".RequestCodes_com_my_1lib")
+                .contentsAsUtf8String()
+                .contains("public static final int LIB_CASE = " + code("com.my_lib.LibCase") + ";");
+    }
+
+    @Test
+    public void collision_with_other_module_fails() {
+
+        // index of another module, as if it was found on the classpath
+        final JavaFileObject index = source(
+                RequestCodeProcessor.INDEX_PACKAGE + ".RequestCodes_com_my_1lib",
+                "package " + RequestCodeProcessor.INDEX_PACKAGE + ";\n" +
+                        "public abstract class RequestCodes_com_my_1lib {\n" +
+                        "  public static final int OTHER = " + code("com.a.MyCase") + ";\n" +
+                        "}"
+        );
+
+        assertThat(compile(index, annotatedCase("com.a", "MyCase", null)))
+                .hadErrorContaining("collides with com.my_lib.RequirementRequestCodes.OTHER");
+    }
+
+    @Test
+    public void index_class_name() {
+        assertEquals("RequestCodes_com_my_1lib", RequestCodeProcessor.indexClassName("com.my_lib"));
+        assertEquals("com.my_lib", RequestCodeProcessor.indexPackageName("RequestCodes_com_my_1lib"));
+        assertEquals("a.__b", RequestCodeProcessor.indexPackageName(RequestCodeProcessor.indexClassName("a.__b")));
+    }
+
+    private static Compilation compile(JavaFileObject... sources) {
+        final JavaFileObject[] all = new JavaFileObject[sources.length + 2];
+        all[0] = ANNOTATION;
+        all[1] = REQUIREMENT_CASE;
+        System.arraycopy(sources, 0, all, 2, sources.length);
+        return javac()
+                .withProcessors(new RequestCodeProcessor())
+                .compile(all);
+    }
+
+    private static JavaFileObject annotatedCase(String packageName, String simpleName, String constant) {
+        return source(packageName + "." + simpleName, "package " + packageName + ";\n" +
+                "@ru.noties.requirements.GenerateRequestCode" + (constant != null ? "(\"" + constant + "\")" : "") + "\n" +
+                "public class " + simpleName + " extends ru.noties.requirements.RequirementCase {}");
+    }
+
+    private static JavaFileObject source(String name, String source) {
+        return JavaFileObjects.forSourceString(name, source);
+    }
+
+    private static int code(String binaryName) {
+        return RequestCodeProcessor.requestCode(binaryName);
+    }
+
+    private static class GeneratingProcessor extends AbstractProcessor {
+
+        private final String packageName;
+
+        private boolean generated;
+
+        GeneratingProcessor(String packageName) {
+            this.packageName = packageName;
+        }
+
+        @Override
+        public Set<String> getSupportedAnnotationTypes() {
+            return Collections.singleton("*");
+        }
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return SourceVersion.latestSupported();
+        }
+
+        @Override
+        public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+            if (!generated) {
+                generated = true;
+                try {
+                    final JavaFileObject file = processingEnv.getFiler().createSourceFile(packageName + ".GeneratedCase");
+                    final Writer writer = file.openWriter();
+                    try {
+                        writer.write("package " + packageName + ";\n" +
+                                "@ru.noties.requirements.GenerateRequestCode\n" +
+                                "public class GeneratedCase extends ru.noties.requirements.RequirementCase {}");
+                    } finally {
+                        writer.close();
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package ru.noties.requirements;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size bit set that can be safely accessed from multiple threads without locking
+ */
+// @since 1.2.0
+class AtomicBits {
+
+    private final int size;
+    private final AtomicLongArray words;
+
+    AtomicBits(int size) {
+        this.size = size;
+        this.words = new AtomicLongArray(Math.max(1, (size + 63) >>> 6));
+    }
+
+    boolean get(int index) {
+        return (words.get(index >>> 6) & (1L << index)) != 0L;
+    }
+
+    void set(int index) {
+        final int word = index >>> 6;
+        final long mask = 1L << index;
+        long value;
+        do {
+            value = words.get(word);
+            if ((value & mask) != 0L) {
+                return;
+            }
+        } while (!words.compareAndSet(word, value, value | mask));
+    }
+
+    void clear(int index) {
+        final int word = index >>> 6;
+        final long mask = 1L << index;
+        long value;
+        do {
+            value = words.get(word);
+            if ((value & mask) == 0L) {
+                return;
+            }
+        } while (!words.compareAndSet(word, value, value & ~mask));
+    }
+
+    void clear() {
+        for (int i = 0, length = words.length(); i < length; i++) {
+            words.set(i, 0L);
+        }
+    }
+
+    /**
+     * @return a boolean indicating if all bits are set
+     */
+    boolean isFull() {
+        final int length = words.length();
+        for (int i = 0; i < length - 1; i++) {
+            if (words.get(i) != -1L) {
+                return false;
+            }
+        }
+        final int remaining = size - ((length - 1) << 6);
+        final long mask = remaining == 64
+                ? -1L
+                : (1L << remaining) - 1L;
+        return (words.get(length - 1) & mask) == mask;
+    }
+}
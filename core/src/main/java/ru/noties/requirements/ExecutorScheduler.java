@@ -0,0 +1,79 @@
+package ru.noties.requirements;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// @since 1.2.0
+class ExecutorScheduler extends Scheduler {
+
+    @NonNull
+    static Scheduler shared() {
+        return Holder.INSTANCE;
+    }
+
+    private final ScheduledExecutorService executorService;
+
+    // remove cancelled tasks from the queue (instead of keeping them until their delay expires)
+    private final boolean purgeOnCancel;
+
+    ExecutorScheduler(@NonNull ScheduledExecutorService executorService) {
+        this(executorService, false);
+    }
+
+    ExecutorScheduler(@NonNull ScheduledExecutorService executorService, boolean purgeOnCancel) {
+        this.executorService = executorService;
+        this.purgeOnCancel = purgeOnCancel;
+    }
+
+    @Override
+    public void execute(@NonNull Runnable runnable) {
+        executorService.execute(runnable);
+    }
+
+    @NonNull
+    @Override
+    public Task schedule(@NonNull Runnable runnable, long delayMillis) {
+        return new FutureTask(executorService.schedule(runnable, delayMillis, TimeUnit.MILLISECONDS));
+    }
+
+    private class FutureTask implements Task {
+
+        private final Future<?> future;
+
+        FutureTask(@NonNull Future<?> future) {
+            this.future = future;
+        }
+
+        @Override
+        public void cancel() {
+            if (future.cancel(false) && purgeOnCancel) {
+                // ScheduledThreadPoolExecutor#setRemoveOnCancelPolicy requires API 21
+                ((ThreadPoolExecutor) executorService).purge();
+            }
+        }
+    }
+
+    // created on first use, so requirements without retries do not start a thread
+    private static class Holder {
+
+        static final Scheduler INSTANCE;
+
+        static {
+            final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "requirements-background");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            INSTANCE = new ExecutorScheduler(executor, true);
+        }
+    }
+}
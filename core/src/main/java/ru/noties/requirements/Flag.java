@@ -59,6 +59,21 @@ public class Flag {
         return value;
     }
 
+    /**
+     * Marks current instance if it is not marked yet. For an instance obtained via {@link #synchronizedFlag()}
+     * check and mark are atomic, so when multiple threads race, exactly one of them gets true
+     *
+     * @return true if this call has marked this instance, false if it was already marked
+     * @since 1.2.0
+     */
+    public boolean markIfNotSet() {
+        if (value) {
+            return false;
+        }
+        value = true;
+        return true;
+    }
+
     @Override
     public String toString() {
         return "Flag{" +
@@ -78,6 +93,11 @@ public class Flag {
             return super.isSet();
         }
 
+        @Override
+        public synchronized boolean markIfNotSet() {
+            return super.markIfNotSet();
+        }
+
         @Override
         public synchronized String toString() {
             return super.toString();
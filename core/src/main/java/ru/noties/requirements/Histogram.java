@@ -0,0 +1,135 @@
+package ru.noties.requirements;
+
+import android.support.annotation.FloatRange;
+import android.support.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-memory latency histogram with power-of-two buckets: a value is counted in bucket
+ * {@code floor(log2(value))}, so bucket {@code i} holds values in range {@code [2^i, 2^(i+1))}
+ * (bucket 0 also holds 0). Can be recorded from multiple threads without locking.
+ *
+ * @see #snapshot()
+ * @since 1.2.0
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class Histogram {
+
+    public static final int BUCKETS = 64;
+
+    // buckets followed by total count and sum
+    private final AtomicLongArray values = new AtomicLongArray(BUCKETS + 2);
+
+    /**
+     * @param value to record (negative values are recorded as 0)
+     */
+    public void record(long value) {
+        final long v = Math.max(0L, value);
+        values.incrementAndGet(bucket(v));
+        values.incrementAndGet(BUCKETS);
+        values.addAndGet(BUCKETS + 1, v);
+    }
+
+    /**
+     * Cheap copy of current state. As buckets are read one by one without locking, a snapshot
+     * taken whilst values are recorded can be slightly inconsistent (count of buckets can differ
+     * from {@link Snapshot#count()} by number of concurrent records)
+     *
+     * @return {@link Snapshot}
+     */
+    @NonNull
+    public Snapshot snapshot() {
+        final long[] buckets = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = values.get(i);
+        }
+        return new Snapshot(buckets, values.get(BUCKETS), values.get(BUCKETS + 1));
+    }
+
+    static int bucket(long value) {
+        return value == 0L
+                ? 0
+                : 63 - Long.numberOfLeadingZeros(value);
+    }
+
+    /**
+     * Immutable state of a {@link Histogram}
+     */
+    public static final class Snapshot {
+
+        private final long[] buckets;
+        private final long count;
+        private final long sum;
+
+        Snapshot(@NonNull long[] buckets, long count, long sum) {
+            this.buckets = buckets;
+            this.count = count;
+            this.sum = sum;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public long sum() {
+            return sum;
+        }
+
+        public long mean() {
+            return count == 0L
+                    ? 0L
+                    : sum / count;
+        }
+
+        /**
+         * @param index of bucket
+         * @return number of values in bucket
+         */
+        public long bucket(int index) {
+            return buckets[index];
+        }
+
+        /**
+         * @param percentile in range [0, 1]
+         * @return upper bound of bucket that contains supplied percentile (0 if histogram is empty)
+         */
+        public long percentile(@FloatRange(from = .0F, to = 1.F) double percentile) {
+
+            long total = 0L;
+            for (long bucket : buckets) {
+                total += bucket;
+            }
+
+            if (total == 0L) {
+                return 0L;
+            }
+
+            final long target = Math.max(1L, (long) Math.ceil(total * percentile));
+
+            long seen = 0L;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets[i];
+                if (seen >= target) {
+                    return i == BUCKETS - 1
+                            ? Long.MAX_VALUE
+                            : (1L << (i + 1)) - 1L;
+                }
+            }
+
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{" +
+                    "count=" + count +
+                    ", mean=" + mean() +
+                    ", p50=" + percentile(.5D) +
+                    ", p99=" + percentile(.99D) +
+                    ", buckets=" + Arrays.toString(buckets) +
+                    '}';
+        }
+    }
+}
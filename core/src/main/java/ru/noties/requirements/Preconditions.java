@@ -11,6 +11,13 @@ abstract class Preconditions {
         }
     }
 
+    // @since 1.2.0
+    static void checkState(boolean state, @NonNull String message) {
+        if (!state) {
+            throw new IllegalStateException(message);
+        }
+    }
+
     private Preconditions() {
     }
 }
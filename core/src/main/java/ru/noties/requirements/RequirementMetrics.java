@@ -0,0 +1,162 @@
+package ru.noties.requirements;
+
+import android.support.annotation.IntRange;
+import android.support.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * Metrics of requirements: for each case class latency of checks ({@code meetsRequirement}),
+ * time from {@code startResolution} to delivered result and funnel counts (entered, passed,
+ * failed and cancelled). Memory is fixed per case class and recording does not lock, so a single
+ * instance can be shared by all requirements of an application.
+ *
+ * @see #create()
+ * @see #create(int)
+ * @see #snapshot()
+ * @since 1.2.0
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public abstract class RequirementMetrics {
+
+    /**
+     * Factory method to obtain an instance of RequirementMetrics that records every latency
+     *
+     * @return an instance of RequirementMetrics
+     */
+    @NonNull
+    public static RequirementMetrics create() {
+        return create(1);
+    }
+
+    /**
+     * Factory method to obtain an instance of RequirementMetrics that records every N-th latency
+     * (funnel counts are always recorded)
+     *
+     * @param sampleEvery record latency of every N-th measurement, 1 to record all
+     * @return an instance of RequirementMetrics
+     */
+    @NonNull
+    public static RequirementMetrics create(@IntRange(from = 1) int sampleEvery) {
+        if (sampleEvery < 1) {
+            throw new IllegalArgumentException("sampleEvery must be positive: " + sampleEvery);
+        }
+        return new RequirementMetricsImpl(sampleEvery);
+    }
+
+    /**
+     * @return steps (one for each case class) in the order they were first entered
+     */
+    @NonNull
+    public abstract List<Step> snapshot();
+
+    /**
+     * Metrics of a single case class
+     */
+    public static final class Step {
+
+        private final String name;
+        private final long entered;
+        private final long passed;
+        private final long failed;
+        private final long cancelled;
+        private final Histogram.Snapshot checkNanos;
+        private final Histogram.Snapshot resolutionNanos;
+
+        Step(
+                @NonNull String name,
+                long entered,
+                long passed,
+                long failed,
+                long cancelled,
+                @NonNull Histogram.Snapshot checkNanos,
+                @NonNull Histogram.Snapshot resolutionNanos
+        ) {
+            this.name = name;
+            this.entered = entered;
+            this.passed = passed;
+            this.failed = failed;
+            this.cancelled = cancelled;
+            this.checkNanos = checkNanos;
+            this.resolutionNanos = resolutionNanos;
+        }
+
+        /**
+         * @return class name of case
+         */
+        @NonNull
+        public String name() {
+            return name;
+        }
+
+        /**
+         * @return number of times case became current in a chain
+         */
+        public long entered() {
+            return entered;
+        }
+
+        /**
+         * @return number of times case was satisfied (by check or resolution)
+         */
+        public long passed() {
+            return passed;
+        }
+
+        /**
+         * @return number of times resolution of case delivered failure
+         */
+        public long failed() {
+            return failed;
+        }
+
+        /**
+         * @return number of times requirement was cancelled whilst case was current
+         */
+        public long cancelled() {
+            return cancelled;
+        }
+
+        /**
+         * @return latency of checks in nanoseconds
+         */
+        @NonNull
+        public Histogram.Snapshot checkNanos() {
+            return checkNanos;
+        }
+
+        /**
+         * @return time from start of resolution to delivered result in nanoseconds
+         */
+        @NonNull
+        public Histogram.Snapshot resolutionNanos() {
+            return resolutionNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Step{" +
+                    "name='" + name + '\'' +
+                    ", entered=" + entered +
+                    ", passed=" + passed +
+                    ", failed=" + failed +
+                    ", cancelled=" + cancelled +
+                    ", checkNanos=" + checkNanos +
+                    ", resolutionNanos=" + resolutionNanos +
+                    '}';
+        }
+    }
+
+    // can be called from any thread, key is a class name of case
+
+    abstract void entered(@NonNull String key);
+
+    abstract void checked(@NonNull String key, long nanos, boolean result);
+
+    abstract void resolved(@NonNull String key, long nanos, boolean result);
+
+    abstract void cancelled(@NonNull String key);
+
+    // satisfied without a check (cached state)
+    abstract void passed(@NonNull String key);
+}
@@ -0,0 +1,115 @@
+package ru.noties.requirements;
+
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// @since 1.2.0
+class RequirementMetricsImpl extends RequirementMetrics {
+
+    private static final int ENTERED = 0;
+    private static final int PASSED = 1;
+    private static final int FAILED = 2;
+    private static final int CANCELLED = 3;
+
+    private final int sampleEvery;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final ConcurrentHashMap<String, CaseMetrics> map = new ConcurrentHashMap<>();
+
+    // in the order cases were first entered
+    private final List<CaseMetrics> list = new CopyOnWriteArrayList<>();
+
+    RequirementMetricsImpl(int sampleEvery) {
+        this.sampleEvery = sampleEvery;
+    }
+
+    @NonNull
+    @Override
+    public List<Step> snapshot() {
+        final List<Step> steps = new ArrayList<>(list.size());
+        for (CaseMetrics metrics : list) {
+            steps.add(new Step(
+                    metrics.name,
+                    metrics.counts.get(ENTERED),
+                    metrics.counts.get(PASSED),
+                    metrics.counts.get(FAILED),
+                    metrics.counts.get(CANCELLED),
+                    metrics.checkNanos.snapshot(),
+                    metrics.resolutionNanos.snapshot()
+            ));
+        }
+        return steps;
+    }
+
+    @Override
+    void entered(@NonNull String key) {
+        metrics(key).counts.incrementAndGet(ENTERED);
+    }
+
+    @Override
+    void checked(@NonNull String key, long nanos, boolean result) {
+        final CaseMetrics metrics = metrics(key);
+        if (sample()) {
+            metrics.checkNanos.record(nanos);
+        }
+        if (result) {
+            metrics.counts.incrementAndGet(PASSED);
+        }
+    }
+
+    @Override
+    void resolved(@NonNull String key, long nanos, boolean result) {
+        final CaseMetrics metrics = metrics(key);
+        if (sample()) {
+            metrics.resolutionNanos.record(nanos);
+        }
+        metrics.counts.incrementAndGet(result ? PASSED : FAILED);
+    }
+
+    @Override
+    void cancelled(@NonNull String key) {
+        metrics(key).counts.incrementAndGet(CANCELLED);
+    }
+
+    @Override
+    void passed(@NonNull String key) {
+        metrics(key).counts.incrementAndGet(PASSED);
+    }
+
+    private boolean sample() {
+        return sampleEvery == 1
+                || sequence.getAndIncrement() % sampleEvery == 0L;
+    }
+
+    @NonNull
+    private CaseMetrics metrics(@NonNull String key) {
+        CaseMetrics metrics = map.get(key);
+        if (metrics == null) {
+            final CaseMetrics created = new CaseMetrics(key);
+            metrics = map.putIfAbsent(key, created);
+            if (metrics == null) {
+                metrics = created;
+                list.add(created);
+            }
+        }
+        return metrics;
+    }
+
+    private static class CaseMetrics {
+
+        final String name;
+        final AtomicLongArray counts = new AtomicLongArray(4);
+        final Histogram checkNanos = new Histogram();
+        final Histogram resolutionNanos = new Histogram();
+
+        CaseMetrics(@NonNull String name) {
+            this.name = name;
+        }
+    }
+}
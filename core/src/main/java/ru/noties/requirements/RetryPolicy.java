@@ -0,0 +1,118 @@
+package ru.noties.requirements;
+
+import android.support.annotation.FloatRange;
+import android.support.annotation.IntRange;
+import android.support.annotation.NonNull;
+
+import java.util.Random;
+
+/**
+ * Retry policy for transient {@link RequirementCase} (for example network connection during Wi-Fi
+ * handover). If a case with a retry policy is not satisfied, it is checked again after a delay
+ * (on a background thread) until it is satisfied or maximum number of attempts is reached. Only
+ * then resolution is started. Delay grows exponentially with each attempt and is randomized
+ * with jitter.
+ *
+ * @see RequirementCase#retryPolicy()
+ * @see #exponential(int, long)
+ * @see #create(int, long, float, long, float)
+ * @since 1.2.0
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class RetryPolicy {
+
+    public static final float DEFAULT_MULTIPLIER = 2.F;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 5000L;
+    public static final float DEFAULT_JITTER = .2F;
+
+    /**
+     * Factory method to obtain an instance of {@link RetryPolicy} with default multiplier,
+     * maximum delay and jitter
+     *
+     * @param maxAttempts        maximum number of additional checks
+     * @param initialDelayMillis delay before first additional check
+     * @return an instance of {@link RetryPolicy}
+     * @see #DEFAULT_MULTIPLIER
+     * @see #DEFAULT_MAX_DELAY_MILLIS
+     * @see #DEFAULT_JITTER
+     */
+    @NonNull
+    public static RetryPolicy exponential(@IntRange(from = 1) int maxAttempts, @IntRange(from = 0) long initialDelayMillis) {
+        return create(maxAttempts, initialDelayMillis, DEFAULT_MULTIPLIER, DEFAULT_MAX_DELAY_MILLIS, DEFAULT_JITTER);
+    }
+
+    /**
+     * @param maxAttempts        maximum number of additional checks
+     * @param initialDelayMillis delay before first additional check
+     * @param multiplier         multiplier that is applied to delay after each attempt
+     * @param maxDelayMillis     upper bound of a delay (before jitter is applied)
+     * @param jitter             fraction of a delay that is randomized, for example `0.2` gives
+     *                           a delay in range [0.8 * delay, 1.2 * delay]
+     * @return an instance of {@link RetryPolicy}
+     */
+    @NonNull
+    public static RetryPolicy create(
+            @IntRange(from = 1) int maxAttempts,
+            @IntRange(from = 0) long initialDelayMillis,
+            @FloatRange(from = 1.) float multiplier,
+            @IntRange(from = 0) long maxDelayMillis,
+            @FloatRange(from = .0, to = 1.) float jitter
+    ) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be greater than 0: " + maxAttempts);
+        }
+        if (initialDelayMillis < 0L || maxDelayMillis < 0L) {
+            throw new IllegalArgumentException("Delay cannot be negative");
+        }
+        if (multiplier < 1.F) {
+            throw new IllegalArgumentException("multiplier cannot be less than 1: " + multiplier);
+        }
+        if (jitter < .0F || jitter > 1.F) {
+            throw new IllegalArgumentException("jitter must be in range [0, 1]: " + jitter);
+        }
+        return new RetryPolicy(maxAttempts, initialDelayMillis, multiplier, maxDelayMillis, jitter);
+    }
+
+    private final int maxAttempts;
+    private final long initialDelayMillis;
+    private final float multiplier;
+    private final long maxDelayMillis;
+    private final float jitter;
+
+    private RetryPolicy(int maxAttempts, long initialDelayMillis, float multiplier, long maxDelayMillis, float jitter) {
+        this.maxAttempts = maxAttempts;
+        this.initialDelayMillis = initialDelayMillis;
+        this.multiplier = multiplier;
+        this.maxDelayMillis = maxDelayMillis;
+        this.jitter = jitter;
+    }
+
+    public int maxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @param attempt zero-based number of an attempt
+     * @param random  source of randomness for jitter
+     * @return delay in milliseconds before supplied attempt
+     */
+    public long delayMillis(@IntRange(from = 0) int attempt, @NonNull Random random) {
+        final double delay = Math.min(
+                maxDelayMillis,
+                initialDelayMillis * Math.pow(multiplier, attempt)
+        );
+        final double spread = delay * jitter;
+        return Math.max(0L, Math.round(delay - spread + (random.nextDouble() * 2 * spread)));
+    }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy{" +
+                "maxAttempts=" + maxAttempts +
+                ", initialDelayMillis=" + initialDelayMillis +
+                ", multiplier=" + multiplier +
+                ", maxDelayMillis=" + maxDelayMillis +
+                ", jitter=" + jitter +
+                '}';
+    }
+}
@@ -0,0 +1,84 @@
+package ru.noties.requirements;
+
+import android.support.annotation.IntRange;
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Abstraction of a place where requirement engine work is executed. Requirement uses 2 schedulers:
+ * <ul>
+ * <li>main - the thread where Requirement lives. Results that are delivered from other threads
+ * (results of background work, results of cases) are executed with it, and so are continuations
+ * of time sliced chains (unless it is the default main thread scheduler, which uses frames)
+ * <li>background - for checks that must not block the main thread (for example {@link RetryPolicy} re-checks)
+ * </ul>
+ * As Scheduler is also an Executor it can be supplied as an executor of a listener.
+ *
+ * @see #background()
+ * @see #create(ScheduledExecutorService)
+ * @see VirtualTimeScheduler
+ * @since 1.2.0
+ */
+public abstract class Scheduler implements Executor {
+
+    /**
+     * @return process-wide Scheduler that executes work on a single background daemon thread
+     */
+    @NonNull
+    public static Scheduler background() {
+        return ExecutorScheduler.shared();
+    }
+
+    /**
+     * Factory method to obtain an instance of Scheduler that executes work with supplied executor service
+     *
+     * @param executorService ScheduledExecutorService to execute work
+     * @return an instance of Scheduler
+     */
+    @NonNull
+    public static Scheduler create(@NonNull ScheduledExecutorService executorService) {
+        return new ExecutorScheduler(executorService);
+    }
+
+    /**
+     * Handle of scheduled work
+     *
+     * @see #schedule(Runnable, long)
+     */
+    public interface Task {
+
+        /**
+         * Cancels execution of scheduled work (if it has not started yet). Can be called multiple times
+         */
+        void cancel();
+    }
+
+    /**
+     * Executes supplied runnable as soon as possible
+     */
+    @Override
+    public abstract void execute(@NonNull Runnable runnable);
+
+    /**
+     * Executes supplied runnable after a delay
+     *
+     * @param runnable    to execute
+     * @param delayMillis delay in milliseconds
+     * @return {@link Task} to cancel scheduled work
+     */
+    @NonNull
+    public abstract Task schedule(@NonNull Runnable runnable, @IntRange(from = 0) long delayMillis);
+
+    /**
+     * Requirement executes work directly if it is already on the thread of its main scheduler,
+     * otherwise work is submitted with {@link #execute(Runnable)}
+     *
+     * @return a boolean indicating if calling thread is the one this Scheduler executes work on,
+     * default false (work is always submitted)
+     */
+    public boolean isCurrentThread() {
+        return false;
+    }
+}
@@ -0,0 +1,279 @@
+package ru.noties.requirements;
+
+import android.support.annotation.NonNull;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Events of requirement sessions that were written by {@link TraceRecorder}.
+ * <p>
+ * Binary format (all numbers are unsigned LEB128 varints unless stated otherwise):
+ * <pre>
+ * header: 'R' 'Q' 'T' 'R' (4 bytes), version (1 byte)
+ * record: type (1 byte), time since previous record in microseconds, requirement id, arg0, arg1
+ * </pre>
+ * Meaning of arguments depends on event type, see constants of this class. Requirement id is assigned
+ * by a {@link TraceRecorder} to each requirement that records with it, so events of requirements that
+ * share a recorder can be told apart. Each session of a requirement starts with {@link #SESSION_STARTED}
+ * and ends with {@link #RESULT_DELIVERED}.
+ *
+ * @see #read(InputStream)
+ * @see TraceRecorder
+ * @since 1.2.0
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class Trace {
+
+    /**
+     * Validation has started. arg0: number of cases in a requirement
+     */
+    public static final int SESSION_STARTED = 1;
+
+    /**
+     * Case became current in a chain. arg0: index of case
+     */
+    public static final int CASE_ENTERED = 2;
+
+    /**
+     * Case has been checked. arg0: index of case, arg1: duration in microseconds shifted left by 1
+     * with check result in the lowest bit
+     */
+    public static final int CHECK = 3;
+
+    /**
+     * Case has been checked again according to its {@link RetryPolicy}. Arguments are the same as {@link #CHECK}
+     */
+    public static final int RETRY_CHECK = 4;
+
+    /**
+     * Resolution of case has started. arg0: index of case
+     */
+    public static final int RESOLUTION_STARTED = 5;
+
+    /**
+     * Activity result has been received. arg0: request code, arg1: zigzag-encoded result code
+     */
+    public static final int ACTIVITY_RESULT = 6;
+
+    /**
+     * Permissions result has been received. arg0: request code, arg1: mask of granted permissions
+     * shifted left by 5 with number of permissions in the lowest 5 bits
+     */
+    public static final int PERMISSIONS_RESULT = 7;
+
+    /**
+     * Case delivered result of its resolution. arg0: index of case, arg1: 1 for success, 0 otherwise
+     */
+    public static final int CASE_RESULT = 8;
+
+    /**
+     * Validation has been cancelled
+     */
+    public static final int CANCELLED = 9;
+
+    /**
+     * Result has been delivered to listeners. arg0: 1 for success, 0 otherwise
+     */
+    public static final int RESULT_DELIVERED = 10;
+
+    static final byte[] MAGIC = {'R', 'Q', 'T', 'R'};
+    // 2: requirement id
+    static final int VERSION = 2;
+
+    // permissions result can hold state of at most 31 permissions (count is stored in 5 bits)
+    static final int MAX_PERMISSIONS = 31;
+
+    /**
+     * Reads a trace from supplied stream. Stream is read until its end, but is not closed.
+     *
+     * @param inputStream to read from
+     * @return parsed Trace
+     * @throws IOException if stream cannot be read or does not contain a trace of supported version
+     */
+    @NonNull
+    public static Trace read(@NonNull InputStream inputStream) throws IOException {
+
+        final DataInputStream in = new DataInputStream(inputStream);
+
+        final byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (magic[i] != MAGIC[i]) {
+                throw new IOException("Supplied stream does not contain a requirements trace");
+            }
+        }
+
+        final int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported trace version: " + version);
+        }
+
+        final List<Event> events = new ArrayList<>();
+
+        long time = 0L;
+
+        int type;
+        while ((type = in.read()) != -1) {
+            time += readVarLong(in);
+            events.add(new Event(type, time, (int) readVarLong(in), readVarLong(in), readVarLong(in)));
+        }
+
+        return new Trace(events);
+    }
+
+    /**
+     * Single recorded event
+     */
+    public static final class Event {
+
+        private final int type;
+        private final long timeMicros;
+        private final int requirement;
+        private final long arg0;
+        private final long arg1;
+
+        Event(int type, long timeMicros, int requirement, long arg0, long arg1) {
+            this.type = type;
+            this.timeMicros = timeMicros;
+            this.requirement = requirement;
+            this.arg0 = arg0;
+            this.arg1 = arg1;
+        }
+
+        /**
+         * @return type of this event, one of the constants of {@link Trace}
+         */
+        public int type() {
+            return type;
+        }
+
+        /**
+         * @return time of this event in microseconds since the first event of a trace
+         */
+        public long timeMicros() {
+            return timeMicros;
+        }
+
+        /**
+         * @return id of a requirement that has recorded this event (unique within a recorder)
+         */
+        public int requirement() {
+            return requirement;
+        }
+
+        public long arg0() {
+            return arg0;
+        }
+
+        public long arg1() {
+            return arg1;
+        }
+
+        /**
+         * @return index of case for case events
+         */
+        public int index() {
+            return (int) arg0;
+        }
+
+        /**
+         * @return result of {@link #CHECK}, {@link #RETRY_CHECK}, {@link #CASE_RESULT}
+         * and {@link #RESULT_DELIVERED} events
+         */
+        public boolean result() {
+            switch (type) {
+                case CHECK:
+                case RETRY_CHECK:
+                    return (arg1 & 1L) == 1L;
+                case CASE_RESULT:
+                    return arg1 == 1L;
+                default:
+                    return arg0 == 1L;
+            }
+        }
+
+        /**
+         * @return duration of {@link #CHECK} and {@link #RETRY_CHECK} events in microseconds
+         */
+        public long durationMicros() {
+            return arg1 >>> 1;
+        }
+
+        /**
+         * @return request code of {@link #ACTIVITY_RESULT} and {@link #PERMISSIONS_RESULT} events
+         */
+        public int requestCode() {
+            return (int) arg0;
+        }
+
+        /**
+         * @return result code of {@link #ACTIVITY_RESULT} event
+         */
+        public int resultCode() {
+            return (int) ((arg1 >>> 1) ^ -(arg1 & 1L));
+        }
+
+        /**
+         * @return grant results of {@link #PERMISSIONS_RESULT} event (0 for granted, -1 for denied)
+         */
+        @NonNull
+        public int[] grantResults() {
+            final int count = (int) (arg1 & MAX_PERMISSIONS);
+            final long mask = arg1 >>> 5;
+            final int[] grantResults = new int[count];
+            for (int i = 0; i < count; i++) {
+                grantResults[i] = ((mask >>> i) & 1L) == 1L ? 0 : -1;
+            }
+            return grantResults;
+        }
+
+        @Override
+        public String toString() {
+            return "Event{" +
+                    "type=" + type +
+                    ", timeMicros=" + timeMicros +
+                    ", requirement=" + requirement +
+                    ", arg0=" + arg0 +
+                    ", arg1=" + arg1 +
+                    '}';
+        }
+    }
+
+    private final List<Event> events;
+
+    private Trace(@NonNull List<Event> events) {
+        this.events = Collections.unmodifiableList(events);
+    }
+
+    /**
+     * @return recorded events in the order they happened
+     */
+    @NonNull
+    public List<Event> events() {
+        return events;
+    }
+
+    private static long readVarLong(@NonNull DataInputStream in) throws IOException {
+        long value = 0L;
+        int shift = 0;
+        int b;
+        do {
+            if (shift > 63) {
+                throw new IOException("Malformed trace: varint is too long");
+            }
+            b = in.read();
+            if (b == -1) {
+                throw new EOFException("Malformed trace: unexpected end of stream");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
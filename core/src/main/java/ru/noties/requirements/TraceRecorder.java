@@ -0,0 +1,73 @@
+package ru.noties.requirements;
+
+import android.support.annotation.NonNull;
+
+import java.io.Closeable;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opt-in recorder of requirement sessions. Every engine event (case entered, check result and its
+ * duration, resolution started, activity and permissions results, case result, cancellation and
+ * result delivered) is written to a compact binary trace that can later be read with
+ * {@link Trace#read(java.io.InputStream)} and replayed.
+ * <p>
+ * One recorder can be shared by multiple requirements, their events are tagged with requirement id.
+ * Recording never throws: if supplied stream fails, recording silently stops.
+ * Please note that permission names and intent data are not recorded.
+ *
+ * @see #create(OutputStream)
+ * @see Trace
+ * @since 1.2.0
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public abstract class TraceRecorder implements Closeable {
+
+    /**
+     * Factory method to obtain an instance of TraceRecorder that writes to supplied stream.
+     * Stream is buffered internally and is flushed after each result delivery.
+     *
+     * @param outputStream to write trace to
+     * @return an instance of TraceRecorder
+     */
+    @NonNull
+    public static TraceRecorder create(@NonNull OutputStream outputStream) {
+        return new TraceRecorderImpl(outputStream);
+    }
+
+    /**
+     * Flushes and closes underlying stream. After this call nothing is recorded
+     */
+    @Override
+    public abstract void close();
+
+    private final AtomicInteger requirements = new AtomicInteger();
+
+    // id of a requirement that records with this recorder
+    int register() {
+        return requirements.getAndIncrement();
+    }
+
+    // can be called from any thread, type is one of Trace constants
+    abstract void record(int requirement, int type, long arg0, long arg1);
+
+    void recordCheck(int requirement, int type, int index, boolean result, long durationNanos) {
+        record(requirement, type, index, ((durationNanos / 1000L) << 1) | (result ? 1L : 0L));
+    }
+
+    void recordActivityResult(int requirement, int requestCode, int resultCode) {
+        record(requirement, Trace.ACTIVITY_RESULT, requestCode, ((long) resultCode << 1) ^ ((long) resultCode >> 63));
+    }
+
+    void recordPermissionsResult(int requirement, int requestCode, @NonNull int[] grantResults) {
+        final int count = Math.min(grantResults.length, Trace.MAX_PERMISSIONS);
+        long mask = 0L;
+        for (int i = 0; i < count; i++) {
+            // PackageManager.PERMISSION_GRANTED
+            if (grantResults[i] == 0) {
+                mask |= 1L << i;
+            }
+        }
+        record(requirement, Trace.PERMISSIONS_RESULT, requestCode, (mask << 5) | count);
+    }
+}
@@ -0,0 +1,87 @@
+package ru.noties.requirements;
+
+import android.support.annotation.NonNull;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// @since 1.2.0
+class TraceRecorderImpl extends TraceRecorder {
+
+    private final OutputStream outputStream;
+
+    // guarded by this
+    private boolean isHeaderWritten;
+    private boolean isClosed;
+    private long lastNanos;
+
+    TraceRecorderImpl(@NonNull OutputStream outputStream) {
+        this.outputStream = new BufferedOutputStream(outputStream);
+    }
+
+    @Override
+    synchronized void record(int requirement, int type, long arg0, long arg1) {
+
+        if (isClosed) {
+            return;
+        }
+
+        final long now = System.nanoTime();
+
+        try {
+
+            if (!isHeaderWritten) {
+                outputStream.write(Trace.MAGIC);
+                outputStream.write(Trace.VERSION);
+                isHeaderWritten = true;
+                lastNanos = now;
+            }
+
+            outputStream.write(type);
+            writeVarLong((now - lastNanos) / 1000L);
+            writeVarLong(requirement);
+            writeVarLong(arg0);
+            writeVarLong(arg1);
+
+            // keep sub-microsecond remainder, so deltas do not drift
+            lastNanos = now - ((now - lastNanos) % 1000L);
+
+            if (type == Trace.RESULT_DELIVERED) {
+                outputStream.flush();
+            }
+
+        } catch (IOException e) {
+            closeQuietly();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!isClosed) {
+            try {
+                outputStream.flush();
+            } catch (IOException e) {
+                // no op
+            }
+            closeQuietly();
+        }
+    }
+
+    private void closeQuietly() {
+        isClosed = true;
+        try {
+            outputStream.close();
+        } catch (IOException e) {
+            // no op
+        }
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0L) {
+            outputStream.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        outputStream.write((int) value);
+    }
+}
@@ -0,0 +1,161 @@
+package ru.noties.requirements;
+
+import android.support.annotation.IntRange;
+import android.support.annotation.NonNull;
+
+import java.util.PriorityQueue;
+
+/**
+ * Deterministic {@link Scheduler} that executes work only when its virtual time is advanced
+ * (on the calling thread). Work is executed in the order of its scheduled time, and work
+ * scheduled for the same time is executed in the order it was scheduled. Can be used as both
+ * main and background scheduler to run requirements without a Looper and real delays.
+ * <p>
+ * Work can be submitted from any thread (for example a case that delivers its result from
+ * a callback thread), but virtual time must be advanced by the thread that has created this
+ * scheduler: it is the only thread for which {@link #isCurrentThread()} returns true. So when used
+ * as main scheduler a whole requirement session is executed on that thread in a deterministic order.
+ *
+ * @see #advanceBy(long)
+ * @see #runPending()
+ * @since 1.2.0
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class VirtualTimeScheduler extends Scheduler {
+
+    private final Thread thread = Thread.currentThread();
+
+    // guarded by queue
+    private final PriorityQueue<ScheduledTask> queue = new PriorityQueue<>();
+    private long sequence;
+
+    private volatile long now;
+
+    @Override
+    public void execute(@NonNull Runnable runnable) {
+        schedule(runnable, 0L);
+    }
+
+    @NonNull
+    @Override
+    public Task schedule(@NonNull Runnable runnable, long delayMillis) {
+        synchronized (queue) {
+            final ScheduledTask task = new ScheduledTask(runnable, now + Math.max(0L, delayMillis), sequence++);
+            queue.add(task);
+            return task;
+        }
+    }
+
+    /**
+     * @return true if called on the thread that has created this scheduler
+     */
+    @Override
+    public boolean isCurrentThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * @return current virtual time in milliseconds
+     */
+    public long now() {
+        return now;
+    }
+
+    /**
+     * Executes all work that is due now (including work that was scheduled by executed work without delay)
+     *
+     * @return number of executed tasks
+     */
+    public int runPending() {
+        return advanceBy(0L);
+    }
+
+    /**
+     * Advances virtual time, executing all work that becomes due in order
+     *
+     * @param millis to advance virtual time by
+     * @return number of executed tasks
+     * @throws IllegalStateException if called not on the thread that has created this scheduler
+     */
+    public int advanceBy(@IntRange(from = 0) long millis) {
+
+        if (!isCurrentThread()) {
+            throw new IllegalStateException("Virtual time must be advanced by the thread that " +
+                    "has created this scheduler: " + thread);
+        }
+
+        final long target = now + millis;
+
+        int executed = 0;
+
+        ScheduledTask task;
+        while ((task = next(target)) != null) {
+            if (!task.isCancelled) {
+                task.runnable.run();
+                executed += 1;
+            }
+        }
+
+        now = target;
+
+        return executed;
+    }
+
+    /**
+     * @return number of scheduled (and not cancelled) tasks
+     */
+    public int pendingCount() {
+        synchronized (queue) {
+            int count = 0;
+            for (ScheduledTask task : queue) {
+                if (!task.isCancelled) {
+                    count += 1;
+                }
+            }
+            return count;
+        }
+    }
+
+    // next task that is due at supplied time (virtual time is moved to its time)
+    private ScheduledTask next(long target) {
+        synchronized (queue) {
+            final ScheduledTask task = queue.peek();
+            if (task == null || task.time > target) {
+                return null;
+            }
+            queue.poll();
+            now = task.time;
+            return task;
+        }
+    }
+
+    private static class ScheduledTask implements Task, Comparable<ScheduledTask> {
+
+        final Runnable runnable;
+        final long time;
+        final long sequence;
+
+        volatile boolean isCancelled;
+
+        ScheduledTask(@NonNull Runnable runnable, long time, long sequence) {
+            this.runnable = runnable;
+            this.time = time;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void cancel() {
+            isCancelled = true;
+        }
+
+        @Override
+        public int compareTo(@NonNull ScheduledTask other) {
+            if (time != other.time) {
+                return time < other.time ? -1 : 1;
+            }
+            return sequence < other.sequence
+                    ? -1
+                    : (sequence == other.sequence ? 0 : 1);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package ru.noties.requirements;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AtomicBitsTest {
+
+    @Test
+    public void empty_is_full() {
+        assertTrue(new AtomicBits(0).isFull());
+    }
+
+    @Test
+    public void set_get_clear() {
+
+        final AtomicBits bits = new AtomicBits(130);
+
+        for (int index : new int[]{0, 63, 64, 129}) {
+            assertFalse(bits.get(index));
+            bits.set(index);
+            assertTrue(bits.get(index));
+        }
+
+        bits.clear(64);
+        assertFalse(bits.get(64));
+        assertTrue(bits.get(63));
+        assertTrue(bits.get(129));
+
+        bits.clear();
+        assertFalse(bits.get(0));
+        assertFalse(bits.get(129));
+    }
+
+    @Test
+    public void full() {
+        // word boundaries: partial word, exactly one word, one word and a bit
+        for (int size : new int[]{1, 5, 63, 64, 65, 128}) {
+            final AtomicBits bits = new AtomicBits(size);
+            for (int i = 0; i < size - 1; i++) {
+                bits.set(i);
+            }
+            assertFalse("size: " + size, bits.isFull());
+            bits.set(size - 1);
+            assertTrue("size: " + size, bits.isFull());
+            bits.clear(0);
+            assertFalse("size: " + size, bits.isFull());
+        }
+    }
+
+    @Test
+    public void concurrent_set_of_one_word() throws InterruptedException {
+
+        final int threads = 4;
+        final int size = 64;
+
+        for (int iteration = 0; iteration < 100; iteration++) {
+
+            final AtomicBits bits = new AtomicBits(size);
+            final CountDownLatch start = new CountDownLatch(1);
+            final Thread[] workers = new Thread[threads];
+
+            for (int t = 0; t < threads; t++) {
+                final int offset = t;
+                workers[t] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            throw new RuntimeException(e);
+                        }
+                        // every thread sets its own bits of the same word
+                        for (int i = offset; i < size; i += threads) {
+                            bits.set(i);
+                        }
+                    }
+                });
+                workers[t].start();
+            }
+
+            start.countDown();
+
+            for (Thread worker : workers) {
+                worker.join();
+            }
+
+            // a lost update would leave a bit unset
+            assertTrue(bits.isFull());
+        }
+    }
+}
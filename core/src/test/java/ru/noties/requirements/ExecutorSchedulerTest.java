@@ -0,0 +1,78 @@
+package ru.noties.requirements;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ExecutorSchedulerTest {
+
+    private ScheduledThreadPoolExecutor executor;
+
+    @Before
+    public void before() {
+        executor = new ScheduledThreadPoolExecutor(1);
+    }
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void cancelled_task_is_purged() {
+
+        final Scheduler scheduler = new ExecutorScheduler(executor, true);
+
+        final Scheduler.Task task = scheduler.schedule(new Noop(), TimeUnit.HOURS.toMillis(1L));
+        assertEquals(1, executor.getQueue().size());
+
+        task.cancel();
+        assertEquals(0, executor.getQueue().size());
+    }
+
+    @Test
+    public void supplied_executor_is_not_purged() {
+
+        final Scheduler scheduler = Scheduler.create(executor);
+
+        scheduler.schedule(new Noop(), TimeUnit.HOURS.toMillis(1L)).cancel();
+
+        // cancelled, but kept until its delay expires (policy of supplied executor)
+        assertEquals(1, executor.getQueue().size());
+    }
+
+    @Test
+    public void schedule_executes() throws InterruptedException {
+
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        Scheduler.create(executor).schedule(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 1L);
+
+        assertTrue(latch.await(5L, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void not_current_thread() {
+        assertFalse(Scheduler.create(executor).isCurrentThread());
+    }
+
+    private static class Noop implements Runnable {
+        @Override
+        public void run() {
+
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package ru.noties.requirements;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FlagTest {
+
+    @Test
+    public void mark() {
+        final Flag flag = Flag.create();
+        assertFalse(flag.isSet());
+        flag.mark();
+        assertTrue(flag.isSet());
+    }
+
+    @Test
+    public void mark_if_not_set() {
+        final Flag flag = Flag.create();
+        assertTrue(flag.markIfNotSet());
+        assertTrue(flag.isSet());
+        assertFalse(flag.markIfNotSet());
+    }
+
+    @Test
+    public void synchronized_flag_is_marked_by_exactly_one_thread() throws InterruptedException {
+
+        final int threads = 8;
+
+        for (int iteration = 0; iteration < 100; iteration++) {
+
+            final Flag flag = Flag.synchronizedFlag();
+            final AtomicInteger marked = new AtomicInteger();
+            final CountDownLatch start = new CountDownLatch(1);
+            final Thread[] workers = new Thread[threads];
+
+            for (int i = 0; i < threads; i++) {
+                workers[i] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            throw new RuntimeException(e);
+                        }
+                        if (flag.markIfNotSet()) {
+                            marked.incrementAndGet();
+                        }
+                    }
+                });
+                workers[i].start();
+            }
+
+            start.countDown();
+
+            for (Thread worker : workers) {
+                worker.join();
+            }
+
+            assertEquals(1, marked.get());
+            assertTrue(flag.isSet());
+        }
+    }
+}
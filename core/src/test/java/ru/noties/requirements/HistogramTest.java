@@ -0,0 +1,144 @@
+package ru.noties.requirements;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+
+public class HistogramTest {
+
+    @Test
+    public void bucket() {
+        assertEquals(0, Histogram.bucket(0L));
+        assertEquals(0, Histogram.bucket(1L));
+        assertEquals(1, Histogram.bucket(2L));
+        assertEquals(1, Histogram.bucket(3L));
+        assertEquals(2, Histogram.bucket(4L));
+        assertEquals(9, Histogram.bucket(1023L));
+        assertEquals(10, Histogram.bucket(1024L));
+        assertEquals(62, Histogram.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void empty() {
+        final Histogram.Snapshot snapshot = new Histogram().snapshot();
+        assertEquals(0L, snapshot.count());
+        assertEquals(0L, snapshot.sum());
+        assertEquals(0L, snapshot.mean());
+        assertEquals(0L, snapshot.percentile(.5D));
+    }
+
+    @Test
+    public void record() {
+
+        final Histogram histogram = new Histogram();
+        histogram.record(0L);
+        histogram.record(3L);
+        histogram.record(5L);
+        histogram.record(1000L);
+
+        final Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(4L, snapshot.count());
+        assertEquals(1008L, snapshot.sum());
+        assertEquals(252L, snapshot.mean());
+        assertEquals(1L, snapshot.bucket(0));
+        assertEquals(1L, snapshot.bucket(1));
+        assertEquals(1L, snapshot.bucket(2));
+        assertEquals(1L, snapshot.bucket(9));
+    }
+
+    @Test
+    public void negative_is_recorded_as_zero() {
+
+        final Histogram histogram = new Histogram();
+        histogram.record(-10L);
+
+        final Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1L, snapshot.count());
+        assertEquals(0L, snapshot.sum());
+        assertEquals(1L, snapshot.bucket(0));
+    }
+
+    @Test
+    public void percentile_is_upper_bound_of_bucket() {
+
+        final Histogram histogram = new Histogram();
+        // 90 values in bucket 3 [8, 16), 10 values in bucket 10 [1024, 2048)
+        for (int i = 0; i < 90; i++) {
+            histogram.record(10L);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(1500L);
+        }
+
+        final Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(15L, snapshot.percentile(.0D));
+        assertEquals(15L, snapshot.percentile(.5D));
+        assertEquals(15L, snapshot.percentile(.9D));
+        assertEquals(2047L, snapshot.percentile(.91D));
+        assertEquals(2047L, snapshot.percentile(1.D));
+    }
+
+    @Test
+    public void percentile_of_max_value() {
+        final Histogram histogram = new Histogram();
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.snapshot().percentile(1.D));
+    }
+
+    @Test
+    public void snapshot_is_immutable() {
+
+        final Histogram histogram = new Histogram();
+        histogram.record(1L);
+
+        final Histogram.Snapshot snapshot = histogram.snapshot();
+        histogram.record(1L);
+
+        assertEquals(1L, snapshot.count());
+        assertEquals(1L, snapshot.bucket(0));
+        assertEquals(2L, histogram.snapshot().count());
+    }
+
+    @Test
+    public void concurrent_records() throws InterruptedException {
+
+        final Histogram histogram = new Histogram();
+
+        final int threads = 4;
+        final int records = 10000;
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            final long value = 1L << i;
+            workers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    for (int r = 0; r < records; r++) {
+                        histogram.record(value);
+                    }
+                }
+            });
+            workers[i].start();
+        }
+
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        final Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(threads * records, snapshot.count());
+        assertEquals((long) records * ((1L << threads) - 1L), snapshot.sum());
+        for (int i = 0; i < threads; i++) {
+            assertEquals(records, snapshot.bucket(i));
+        }
+    }
+}
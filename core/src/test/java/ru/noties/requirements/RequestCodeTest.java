@@ -0,0 +1,32 @@
+package ru.noties.requirements;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RequestCodeTest {
+
+    @Test
+    public void in_range() {
+        for (String tag : new String[]{"", "a", "ru.noties.requirements.PermissionCase", "\uffff\uffff\uffff"}) {
+            final int code = RequestCode.createRequestCode(tag);
+            assertTrue(tag, code >= 0 && code <= RequestCode.MAX);
+        }
+    }
+
+    @Test
+    public void class_uses_name() {
+        assertEquals(
+                RequestCode.createRequestCode(RequestCodeTest.class.getName()),
+                RequestCode.createRequestCode(RequestCodeTest.class)
+        );
+    }
+
+    @Test
+    public void stable() {
+        // generated constants of requirements-compiler rely on this value
+        assertEquals(Math.abs("ru.noties.requirements.RequestCodeTest".hashCode() % RequestCode.MAX),
+                RequestCode.createRequestCode(RequestCodeTest.class));
+    }
+}
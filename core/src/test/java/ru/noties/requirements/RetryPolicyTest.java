@@ -0,0 +1,88 @@
+package ru.noties.requirements;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RetryPolicyTest {
+
+    @Test
+    public void exponential_growth_without_jitter() {
+        final RetryPolicy policy = RetryPolicy.create(5, 100L, 2.F, 10000L, .0F);
+        final Random random = new Random(42L);
+        assertEquals(100L, policy.delayMillis(0, random));
+        assertEquals(200L, policy.delayMillis(1, random));
+        assertEquals(400L, policy.delayMillis(2, random));
+        assertEquals(800L, policy.delayMillis(3, random));
+    }
+
+    @Test
+    public void max_delay() {
+        final RetryPolicy policy = RetryPolicy.create(20, 100L, 2.F, 1000L, .0F);
+        assertEquals(1000L, policy.delayMillis(4, new Random()));
+        // no overflow for big attempts
+        assertEquals(1000L, policy.delayMillis(1000, new Random()));
+    }
+
+    @Test
+    public void jitter_bounds() {
+
+        final RetryPolicy policy = RetryPolicy.create(3, 1000L, 1.F, 1000L, .2F);
+
+        assertEquals(800L, policy.delayMillis(0, new FixedRandom(.0D)));
+        assertEquals(1000L, policy.delayMillis(0, new FixedRandom(.5D)));
+        assertEquals(1200L, policy.delayMillis(0, new FixedRandom(1.D)));
+
+        final Random random = new Random(7L);
+        for (int i = 0; i < 1000; i++) {
+            final long delay = policy.delayMillis(0, random);
+            assertTrue(String.valueOf(delay), delay >= 800L && delay <= 1200L);
+        }
+    }
+
+    @Test
+    public void defaults() {
+        final RetryPolicy policy = RetryPolicy.exponential(3, 250L);
+        assertEquals(3, policy.maxAttempts());
+        assertEquals(250L, policy.delayMillis(0, new FixedRandom(.5D)));
+        assertEquals(500L, policy.delayMillis(1, new FixedRandom(.5D)));
+        assertEquals(RetryPolicy.DEFAULT_MAX_DELAY_MILLIS, policy.delayMillis(10, new FixedRandom(.5D)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zero_attempts() {
+        RetryPolicy.exponential(0, 100L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negative_delay() {
+        RetryPolicy.exponential(1, -1L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void multiplier_less_than_one() {
+        RetryPolicy.create(1, 100L, .5F, 1000L, .0F);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void jitter_out_of_range() {
+        RetryPolicy.create(1, 100L, 2.F, 1000L, 1.5F);
+    }
+
+    private static class FixedRandom extends Random {
+
+        private final double value;
+
+        FixedRandom(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public double nextDouble() {
+            return value;
+        }
+    }
+}
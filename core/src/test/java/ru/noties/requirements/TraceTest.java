@@ -0,0 +1,169 @@
+package ru.noties.requirements;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TraceTest {
+
+    @Test
+    public void round_trip() throws IOException {
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final TraceRecorder recorder = TraceRecorder.create(out);
+
+        final int first = recorder.register();
+        final int second = recorder.register();
+
+        recorder.record(first, Trace.SESSION_STARTED, 3, 0);
+        recorder.record(second, Trace.SESSION_STARTED, 1, 0);
+        recorder.recordCheck(first, Trace.CHECK, 2, true, 1500000L);
+        recorder.recordCheck(second, Trace.RETRY_CHECK, 0, false, 0L);
+        recorder.recordActivityResult(first, 42, -1);
+        recorder.recordActivityResult(first, 43, Integer.MIN_VALUE);
+        recorder.recordPermissionsResult(second, 7, new int[]{0, -1, 0});
+        recorder.record(first, Trace.CASE_RESULT, 2, 1);
+        recorder.record(first, Trace.RESULT_DELIVERED, 1, 0);
+        recorder.record(second, Trace.CANCELLED, Long.MAX_VALUE, -1L);
+        recorder.close();
+
+        final List<Trace.Event> events = read(out.toByteArray()).events();
+        assertEquals(10, events.size());
+
+        assertEquals(Trace.SESSION_STARTED, events.get(0).type());
+        assertEquals(first, events.get(0).requirement());
+        assertEquals(3L, events.get(0).arg0());
+        assertEquals(second, events.get(1).requirement());
+
+        final Trace.Event check = events.get(2);
+        assertEquals(Trace.CHECK, check.type());
+        assertEquals(2, check.index());
+        assertTrue(check.result());
+        assertEquals(1500L, check.durationMicros());
+
+        final Trace.Event retry = events.get(3);
+        assertEquals(second, retry.requirement());
+        assertFalse(retry.result());
+        assertEquals(0L, retry.durationMicros());
+
+        assertEquals(42, events.get(4).requestCode());
+        assertEquals(-1, events.get(4).resultCode());
+        assertEquals(Integer.MIN_VALUE, events.get(5).resultCode());
+
+        final Trace.Event permissions = events.get(6);
+        assertEquals(7, permissions.requestCode());
+        assertArrayEquals(new int[]{0, -1, 0}, permissions.grantResults());
+
+        assertTrue(events.get(7).result());
+        assertEquals(2, events.get(7).index());
+        assertTrue(events.get(8).result());
+
+        // full 64-bit varints
+        assertEquals(Long.MAX_VALUE, events.get(9).arg0());
+        assertEquals(-1L, events.get(9).arg1());
+
+        long previous = 0L;
+        for (Trace.Event event : events) {
+            assertTrue(event.timeMicros() >= previous);
+            previous = event.timeMicros();
+        }
+    }
+
+    @Test
+    public void permissions_are_limited() throws IOException {
+
+        final int[] grantResults = new int[Trace.MAX_PERMISSIONS + 4];
+        Arrays.fill(grantResults, -1);
+        grantResults[0] = 0;
+        grantResults[Trace.MAX_PERMISSIONS - 1] = 0;
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final TraceRecorder recorder = TraceRecorder.create(out);
+        recorder.recordPermissionsResult(recorder.register(), 1, grantResults);
+        recorder.close();
+
+        final int[] expected = Arrays.copyOf(grantResults, Trace.MAX_PERMISSIONS);
+        assertArrayEquals(expected, read(out.toByteArray()).events().get(0).grantResults());
+    }
+
+    @Test
+    public void closed_recorder_ignores_events() throws IOException {
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final TraceRecorder recorder = TraceRecorder.create(out);
+        recorder.record(recorder.register(), Trace.SESSION_STARTED, 1, 0);
+        recorder.close();
+        recorder.record(0, Trace.RESULT_DELIVERED, 1, 0);
+
+        assertEquals(1, read(out.toByteArray()).events().size());
+    }
+
+    @Test
+    public void bad_magic() {
+        try {
+            read(new byte[]{'R', 'Q', 'T', 'X', Trace.VERSION});
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("does not contain a requirements trace"));
+        }
+    }
+
+    @Test
+    public void unsupported_version() {
+        try {
+            read(new byte[]{'R', 'Q', 'T', 'R', 1});
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Unsupported trace version: 1"));
+        }
+    }
+
+    @Test
+    public void truncated() throws IOException {
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final TraceRecorder recorder = TraceRecorder.create(out);
+        recorder.record(recorder.register(), Trace.SESSION_STARTED, 1000, 0);
+        recorder.close();
+
+        final byte[] bytes = out.toByteArray();
+        try {
+            read(Arrays.copyOf(bytes, bytes.length - 1));
+            fail();
+        } catch (EOFException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void varint_too_long() {
+
+        final byte[] bytes = new byte[5 + 1 + 11];
+        System.arraycopy(Trace.MAGIC, 0, bytes, 0, Trace.MAGIC.length);
+        bytes[4] = Trace.VERSION;
+        bytes[5] = Trace.SESSION_STARTED;
+        Arrays.fill(bytes, 6, bytes.length, (byte) 0x80);
+
+        try {
+            read(bytes);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("varint is too long"));
+        }
+    }
+
+    private static Trace read(byte[] bytes) throws IOException {
+        return Trace.read(new ByteArrayInputStream(bytes));
+    }
+}
@@ -0,0 +1,177 @@
+package ru.noties.requirements;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class VirtualTimeSchedulerTest {
+
+    @Test
+    public void nothing_runs_until_time_is_advanced() {
+
+        final VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        final List<String> log = new ArrayList<>();
+
+        scheduler.execute(new Log(log, "a"));
+
+        assertEquals(0, log.size());
+        assertEquals(1, scheduler.pendingCount());
+
+        assertEquals(1, scheduler.runPending());
+        assertEquals(Arrays.asList("a"), log);
+        assertEquals(0, scheduler.pendingCount());
+    }
+
+    @Test
+    public void order_by_time_then_submission() {
+
+        final VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        final List<String> log = new ArrayList<>();
+
+        scheduler.schedule(new Log(log, "c"), 20L);
+        scheduler.schedule(new Log(log, "a"), 10L);
+        scheduler.schedule(new Log(log, "b"), 10L);
+        scheduler.schedule(new Log(log, "d"), 30L);
+
+        assertEquals(3, scheduler.advanceBy(20L));
+        assertEquals(Arrays.asList("a", "b", "c"), log);
+        assertEquals(20L, scheduler.now());
+
+        assertEquals(1, scheduler.advanceBy(100L));
+        assertEquals(120L, scheduler.now());
+    }
+
+    @Test
+    public void time_of_a_task_is_current_whilst_it_runs() {
+
+        final VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        final List<Long> times = new ArrayList<>();
+
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                times.add(scheduler.now());
+                // relative to the time of this task
+                scheduler.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        times.add(scheduler.now());
+                    }
+                }, 5L);
+            }
+        }, 10L);
+
+        scheduler.advanceBy(100L);
+
+        assertEquals(Arrays.asList(10L, 15L), times);
+    }
+
+    @Test
+    public void work_scheduled_without_delay_by_executed_work_runs_in_the_same_pass() {
+
+        final VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        final List<String> log = new ArrayList<>();
+
+        scheduler.execute(new Runnable() {
+            @Override
+            public void run() {
+                log.add("outer");
+                scheduler.execute(new Log(log, "inner"));
+            }
+        });
+
+        assertEquals(2, scheduler.runPending());
+        assertEquals(Arrays.asList("outer", "inner"), log);
+    }
+
+    @Test
+    public void cancelled_task_is_not_executed() {
+
+        final VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        final List<String> log = new ArrayList<>();
+
+        final Scheduler.Task task = scheduler.schedule(new Log(log, "a"), 10L);
+        scheduler.schedule(new Log(log, "b"), 10L);
+
+        task.cancel();
+        task.cancel();
+
+        assertEquals(1, scheduler.pendingCount());
+        assertEquals(1, scheduler.advanceBy(10L));
+        assertEquals(Arrays.asList("b"), log);
+    }
+
+    @Test
+    public void work_submitted_from_other_thread_runs_on_owner_thread() throws InterruptedException {
+
+        final VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        final AtomicReference<Thread> executedOn = new AtomicReference<>();
+        final AtomicReference<Boolean> isCurrentThread = new AtomicReference<>();
+
+        final Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                isCurrentThread.set(scheduler.isCurrentThread());
+                scheduler.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        executedOn.set(Thread.currentThread());
+                    }
+                });
+            }
+        });
+        thread.start();
+        thread.join();
+
+        assertFalse(isCurrentThread.get());
+        assertTrue(scheduler.isCurrentThread());
+
+        assertEquals(1, scheduler.runPending());
+        assertEquals(Thread.currentThread(), executedOn.get());
+    }
+
+    @Test
+    public void advance_from_other_thread_throws() throws InterruptedException {
+
+        final VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+        final AtomicReference<Throwable> throwable = new AtomicReference<>();
+
+        final Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    scheduler.runPending();
+                } catch (Throwable t) {
+                    throwable.set(t);
+                }
+            }
+        });
+        thread.start();
+        thread.join();
+
+        assertTrue(String.valueOf(throwable.get()), throwable.get() instanceof IllegalStateException);
+    }
+
+    private static class Log implements Runnable {
+
+        private final List<String> log;
+        private final String name;
+
+        Log(List<String> log, String name) {
+            this.log = log;
+            this.name = name;
+        }
+
+        @Override
+        public void run() {
+            log.add(name);
+        }
+    }
+}
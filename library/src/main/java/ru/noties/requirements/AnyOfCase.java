@@ -0,0 +1,132 @@
+package ru.noties.requirements;
+
+import android.content.Intent;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link RequirementCase} that is satisfied if any of its alternatives is satisfied (for example
+ * fine or coarse location permission). Alternatives must be supplied in the order of their
+ * resolution cost: if none of them is satisfied, only the first one will start its resolution.
+ * <p>
+ * Alternatives are checked sequentially on the calling thread until the first satisfied one, so
+ * latency of a check is the sum of checks of alternatives up to the satisfied one (checks are
+ * not executed concurrently: {@link #meetsRequirement()} is synchronous and alternatives read
+ * the dispatcher and permission state of the calling thread). If this case is detached
+ * (for example a requirement is cancelled) whilst an alternative is being resolved, that alternative
+ * is detached as well.
+ *
+ * @see #create(RequirementCase[])
+ * @since 1.2.0
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class AnyOfCase<T> extends RequirementCase<T> {
+
+    @SafeVarargs
+    @NonNull
+    public static <T> AnyOfCase<T> create(@NonNull RequirementCase<? super T>... alternatives) {
+        // copied element by element, the array itself is not passed on
+        final List<RequirementCase<? super T>> list = new ArrayList<>(alternatives.length);
+        for (RequirementCase<? super T> alternative : alternatives) {
+            list.add(alternative);
+        }
+        return new AnyOfCase<T>(list);
+    }
+
+    private final List<RequirementCase> alternatives;
+
+    // alternative which resolution is in progress
+    private RequirementCase resolving;
+
+    public AnyOfCase(@NonNull List<? extends RequirementCase<? super T>> alternatives) {
+        if (alternatives.isEmpty()) {
+            throw new IllegalArgumentException("AnyOfCase requires at least one alternative");
+        }
+        for (RequirementCase<? super T> alternative : alternatives) {
+            Preconditions.checkNonNull(alternative, "Cannot add null RequirementCase");
+        }
+        this.alternatives = Collections.unmodifiableList(new ArrayList<RequirementCase>(alternatives));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean meetsRequirement() {
+        final EventDispatcher<T> dispatcher = dispatcher();
+        for (RequirementCase alternative : alternatives) {
+            //noinspection unchecked
+            if (alternative.check(dispatcher)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Starts resolution of the first alternative
+     */
+    @Override
+    public void startResolution() {
+        resolving = alternatives.get(0);
+        //noinspection unchecked
+        resolving.attach(dispatcher(), new Callback() {
+            @Override
+            public void onRequirementCaseResult(boolean result, @Nullable Payload payload) {
+                final RequirementCase alternative = resolving;
+                resolving = null;
+                if (alternative != null) {
+                    alternative.detach();
+                }
+                deliverResult(result, payload);
+            }
+        });
+        resolving.startResolution();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean onActivityResult(int requestCode, int resultCode, Intent data) {
+        final RequirementCase alternative = resolving;
+        return alternative != null && alternative.onActivityResult(requestCode, resultCode, data);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
+        final RequirementCase alternative = resolving;
+        return alternative != null && alternative.onRequestPermissionsResult(requestCode, permissions, grantResults);
+    }
+
+    @NonNull
+    public List<RequirementCase> alternatives() {
+        return alternatives;
+    }
+
+    /**
+     * Detaches alternative which resolution is in progress, so its result is not delivered
+     */
+    @Override
+    protected void onDetach() {
+        final RequirementCase alternative = resolving;
+        resolving = null;
+        if (alternative != null) {
+            alternative.detach();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AnyOfCase{" +
+                "alternatives=" + alternatives +
+                '}';
+    }
+}
@@ -0,0 +1,57 @@
+package ru.noties.requirements;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+
+/**
+ * Runtime statistics of {@link RequirementCase} checks that are used by adaptive ordering. Records
+ * latency and failure rate of each {@link RequirementCase#meetsRequirement()} call and reorders
+ * cases that are marked as order-independent (see {@link RequirementCase#isOrderIndependent()}),
+ * so that cheap and likely to fail checks are evaluated first.
+ * <p>
+ * Cases that are not order-independent are never moved and act as barriers: order-independent cases
+ * are reordered only between them.
+ *
+ * @see #create(Context)
+ * @see #inMemory()
+ * @see RequirementBuilder#adaptiveOrdering(CaseStatistics)
+ * @since 1.2.0
+ */
+public abstract class CaseStatistics {
+
+    /**
+     * Factory method to obtain an instance of {@link CaseStatistics} that persists collected
+     * statistics in SharedPreferences, so ordering survives application restarts. Please note
+     * that the same instance can (and should) be shared between different requirements
+     *
+     * @param context Context to obtain SharedPreferences
+     * @return new instance of {@link CaseStatistics}
+     */
+    @NonNull
+    public static CaseStatistics create(@NonNull Context context) {
+        return new CaseStatisticsImpl(
+                context.getApplicationContext().getSharedPreferences(CaseStatisticsImpl.PREFERENCES_NAME, Context.MODE_PRIVATE)
+        );
+    }
+
+    /**
+     * @return an instance of {@link CaseStatistics} that keeps collected statistics only in memory
+     */
+    @NonNull
+    public static CaseStatistics inMemory() {
+        return new CaseStatisticsImpl(null);
+    }
+
+    abstract void record(@NonNull RequirementCase requirementCase, long latencyNanos, boolean satisfied);
+
+    /**
+     * @return ordered cases (can be the same array if no reordering is required)
+     */
+    @NonNull
+    abstract RequirementCase[] order(@NonNull RequirementCase[] requirementCases);
+
+    /**
+     * Writes pending statistics (if any) to persistent storage
+     */
+    abstract void persist();
+}
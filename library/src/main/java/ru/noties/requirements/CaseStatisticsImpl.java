@@ -0,0 +1,213 @@
+package ru.noties.requirements;
+
+import android.content.SharedPreferences;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+// @since 1.2.0
+class CaseStatisticsImpl extends CaseStatistics {
+
+    static final String PREFERENCES_NAME = "ru.noties.requirements.CaseStatistics";
+
+    // weight of a new latency sample in exponential moving average (1/8)
+    private static final int LATENCY_SHIFT = 3;
+
+    // when reached, counters are halved, so recent checks weigh more than old ones
+    private static final int MAX_CHECKS = 1024;
+
+    private final SharedPreferences preferences;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private boolean isLoaded;
+
+    CaseStatisticsImpl(@Nullable SharedPreferences preferences) {
+        this.preferences = preferences;
+    }
+
+    @Override
+    synchronized void record(@NonNull RequirementCase requirementCase, long latencyNanos, boolean satisfied) {
+
+        load();
+
+        final String key = key(requirementCase);
+
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry(latencyNanos, 0, 0);
+            entries.put(key, entry);
+        } else {
+            entry.latency += (latencyNanos - entry.latency) >> LATENCY_SHIFT;
+        }
+
+        if (entry.checks == MAX_CHECKS) {
+            entry.checks >>= 1;
+            entry.failures >>= 1;
+        }
+
+        entry.checks += 1;
+        if (!satisfied) {
+            entry.failures += 1;
+        }
+        entry.isDirty = true;
+    }
+
+    @NonNull
+    @Override
+    synchronized RequirementCase[] order(@NonNull RequirementCase[] requirementCases) {
+
+        load();
+
+        final int size = requirementCases.length;
+
+        RequirementCase[] ordered = null;
+
+        int start = 0;
+
+        while (start < size) {
+
+            if (!requirementCases[start].isOrderIndependent()) {
+                start += 1;
+                continue;
+            }
+
+            // find the end of the order-independent run
+            int end = start + 1;
+            while (end < size && requirementCases[end].isOrderIndependent()) {
+                end += 1;
+            }
+
+            if (end - start > 1) {
+                if (ordered == null) {
+                    ordered = requirementCases.clone();
+                }
+                // stable, so cases without statistics keep their insertion order
+                Arrays.sort(ordered, start, end, comparator);
+            }
+
+            start = end;
+        }
+
+        return ordered != null
+                ? ordered
+                : requirementCases;
+    }
+
+    @Override
+    synchronized void persist() {
+
+        if (preferences == null) {
+            return;
+        }
+
+        SharedPreferences.Editor editor = null;
+
+        for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+            final Entry entry = mapEntry.getValue();
+            if (entry.isDirty) {
+                if (editor == null) {
+                    editor = preferences.edit();
+                }
+                editor.putString(mapEntry.getKey(), entry.encode());
+                entry.isDirty = false;
+            }
+        }
+
+        if (editor != null) {
+            editor.apply();
+        }
+    }
+
+    private void load() {
+
+        if (isLoaded) {
+            return;
+        }
+
+        isLoaded = true;
+
+        if (preferences == null) {
+            return;
+        }
+
+        for (Map.Entry<String, ?> mapEntry : preferences.getAll().entrySet()) {
+            final Object value = mapEntry.getValue();
+            if (value instanceof String) {
+                final Entry entry = Entry.decode((String) value);
+                if (entry != null) {
+                    entries.put(mapEntry.getKey(), entry);
+                }
+            }
+        }
+    }
+
+    // expected cost of a check before the chain fails: latency / probability of failure
+    private double score(@NonNull RequirementCase requirementCase) {
+        final Entry entry = entries.get(key(requirementCase));
+        if (entry == null) {
+            // unknown cases go first, so they receive statistics
+            return .0D;
+        }
+        // Laplace smoothing, so never failed cases still have non-zero probability
+        final double failureRate = (entry.failures + 1.D) / (entry.checks + 2.D);
+        return entry.latency / failureRate;
+    }
+
+    // identity key distinguishes instances of the same class (for example PermissionCase of different permissions)
+    @NonNull
+    static String key(@NonNull RequirementCase requirementCase) {
+        final String identityKey = requirementCase.identityKey();
+        return identityKey != null
+                ? identityKey
+                : requirementCase.getClass().getName();
+    }
+
+    private final Comparator<RequirementCase> comparator = new Comparator<RequirementCase>() {
+        @Override
+        public int compare(RequirementCase lhs, RequirementCase rhs) {
+            return Double.compare(score(lhs), score(rhs));
+        }
+    };
+
+    private static class Entry {
+
+        long latency;
+        int checks;
+        int failures;
+
+        boolean isDirty;
+
+        Entry(long latency, int checks, int failures) {
+            this.latency = latency;
+            this.checks = checks;
+            this.failures = failures;
+        }
+
+        @NonNull
+        String encode() {
+            return latency + ":" + checks + ":" + failures;
+        }
+
+        @Nullable
+        static Entry decode(@NonNull String value) {
+            final String[] parts = value.split(":");
+            if (parts.length != 3) {
+                return null;
+            }
+            try {
+                return new Entry(
+                        Long.parseLong(parts[0]),
+                        Integer.parseInt(parts[1]),
+                        Integer.parseInt(parts[2])
+                );
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
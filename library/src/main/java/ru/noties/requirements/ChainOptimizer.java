@@ -0,0 +1,66 @@
+package ru.noties.requirements;
+
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiles a list of added cases into a plan that is executed by a {@link Requirement}:
+ * <ul>
+ * <li>removes duplicates (the same instance or equal {@link RequirementCase#identityKey()})
+ * <li>removes cases that are covered by a case added before them ({@link RequirementCase#covers(RequirementCase)})
+ * </ul>
+ * Relative order of remaining cases is kept.
+ */
+// @since 1.2.0
+abstract class ChainOptimizer {
+
+    @NonNull
+    static RequirementCase[] optimize(@NonNull List<? extends RequirementCase> requirementCases) {
+
+        final int size = requirementCases.size();
+
+        final List<RequirementCase> plan = new ArrayList<>(size);
+
+        final Set<RequirementCase> instances = Collections.newSetFromMap(
+                new IdentityHashMap<RequirementCase, Boolean>(size)
+        );
+        final Set<String> keys = new HashSet<>(size);
+
+        for (RequirementCase requirementCase : requirementCases) {
+
+            if (!instances.add(requirementCase)) {
+                continue;
+            }
+
+            final String key = requirementCase.identityKey();
+            if (key != null && !keys.add(key)) {
+                continue;
+            }
+
+            if (!isCovered(plan, requirementCase)) {
+                plan.add(requirementCase);
+            }
+        }
+
+        return plan.toArray(new RequirementCase[plan.size()]);
+    }
+
+    private static boolean isCovered(@NonNull List<RequirementCase> plan, @NonNull RequirementCase requirementCase) {
+        for (RequirementCase previous : plan) {
+            //noinspection unchecked
+            if (previous.covers(requirementCase)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ChainOptimizer() {
+    }
+}
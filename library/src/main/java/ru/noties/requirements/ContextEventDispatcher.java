@@ -0,0 +1,102 @@
+package ru.noties.requirements;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.RequiresApi;
+
+import java.util.Map;
+
+/**
+ * Check-only dispatcher that works with any Context (for example a JobService or a background worker).
+ * A requirement created with it can only check its cases ({@link Requirement#isValid()},
+ * {@link Requirement#unsatisfiedCases()}): {@link #activity()} and all requests throw
+ * IllegalStateException, and {@link Requirement#validate(Requirement.Listener)} delivers failure
+ * instead of starting resolution of an unsatisfied case.
+ *
+ * @see EventDispatcher#create(Context)
+ * @since 1.2.0
+ */
+@SuppressWarnings("WeakerAccess")
+public class ContextEventDispatcher<C extends Context> extends EventDispatcher<C> {
+
+    private final C context;
+
+    public ContextEventDispatcher(@NonNull C context) {
+        this.context = context;
+    }
+
+    @Override
+    public boolean isCheckOnly() {
+        return true;
+    }
+
+    @NonNull
+    @Override
+    public Context context() {
+        return context;
+    }
+
+    /**
+     * @throws IllegalStateException always, this dispatcher has no Activity
+     */
+    @NonNull
+    @Override
+    public Activity activity() {
+        throw checkOnly();
+    }
+
+    @NonNull
+    @Override
+    public C target() {
+        return context;
+    }
+
+    /**
+     * @throws IllegalStateException always, this dispatcher only checks
+     */
+    @Override
+    public void startActivityForResult(@NonNull Intent intent, int requestCode) {
+        throw checkOnly();
+    }
+
+    /**
+     * @throws IllegalStateException always, this dispatcher only checks
+     */
+    @Override
+    @RequiresApi(Build.VERSION_CODES.M)
+    public void requestPermission(@NonNull String permission, int requestCode) {
+        throw checkOnly();
+    }
+
+    @Override
+    @RequiresApi(Build.VERSION_CODES.M)
+    public boolean checkSelfPermission(@NonNull String permission) {
+        return context.checkSelfPermission(permission) == PackageManager.PERMISSION_GRANTED;
+    }
+
+    @Nullable
+    @Override
+    public Map<String, Boolean> checkSelfPermissions() {
+        return PermissionSnapshot.requestedPermissions(context);
+    }
+
+    /**
+     * @return false, as there is no UI
+     */
+    @Override
+    @RequiresApi(Build.VERSION_CODES.M)
+    public boolean shouldShowRequestPermissionRationale(@NonNull String permission) {
+        return false;
+    }
+
+    @NonNull
+    private static IllegalStateException checkOnly() {
+        return new IllegalStateException("This EventDispatcher has no Activity and can be used " +
+                "only to check requirement cases");
+    }
+}
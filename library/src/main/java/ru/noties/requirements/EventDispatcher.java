@@ -1,25 +1,32 @@
 package ru.noties.requirements;
 
 import android.app.Activity;
+import android.app.Application;
 import android.app.Fragment;
+import android.content.Context;
 import android.content.Intent;
 import android.os.Build;
 import android.support.annotation.IntRange;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.annotation.RequiresApi;
 
+import java.util.Map;
+
 /**
  * Abstraction to allow resolving requirements from any context (not from android.content.Context).
  * Provides 2 factory methods to work with Activity and Fragment.
  *
  * @see #create(Activity)
  * @see #create(Fragment)
+ * @see #create(Context)
  * @since 1.1.0
  */
 public abstract class EventDispatcher<T> {
 
     /**
-     * Factory method to obtain an instance of EventDispatcher that dispatches events through android.app.Activity
+     * Factory method to obtain an instance of EventDispatcher that dispatches events through android.app.Activity.
+     * Since 1.2.0 returned dispatcher holds a weak reference to the Activity
      *
      * @param activity from which to dispatch events
      * @return an instance of EventDispatcher
@@ -34,7 +41,8 @@ public abstract class EventDispatcher<T> {
      * Factory method to obtain an instance of EventDispatcher that dispatches events through android.app.Fragment.
      * <p>
      * Please note that if you use this dispatcher or create your own, {@link EventSource} should
-     * consume events from a Fragment (and not from Activity)
+     * consume events from a Fragment (and not from Activity). Since 1.2.0 returned dispatcher holds
+     * a weak reference to the Fragment
      *
      * @param fragment from which to dispatch events
      * @return an instance of EventDispatcher
@@ -45,6 +53,46 @@ public abstract class EventDispatcher<T> {
         return new EventDispatcherFragment<>(fragment);
     }
 
+    /**
+     * Factory method to obtain a check-only EventDispatcher that works without an Activity
+     * (for example in a JobService or a background worker)
+     *
+     * @param context Context to check requirement cases with
+     * @return an instance of EventDispatcher
+     * @see ContextEventDispatcher
+     * @since 1.2.0
+     */
+    @SuppressWarnings("unused")
+    @NonNull
+    public static <C extends Context> EventDispatcher<C> create(@NonNull C context) {
+        return new ContextEventDispatcher<>(context);
+    }
+
+    /**
+     * @return a boolean indicating if this dispatcher can only check requirement cases (has no
+     * Activity to resolve them), default false
+     * @see ContextEventDispatcher
+     * @since 1.2.0
+     */
+    public boolean isCheckOnly() {
+        return false;
+    }
+
+    /**
+     * @return Context of this dispatcher, by default {@link #activity()}
+     * @since 1.2.0
+     */
+    @NonNull
+    public Context context() {
+        return activity();
+    }
+
+    // @since 1.2.0, Application to observe lifecycle of activity() with
+    @NonNull
+    Application application() {
+        return activity().getApplication();
+    }
+
     /**
      * @return associated Activity
      */
@@ -72,6 +120,22 @@ public abstract class EventDispatcher<T> {
     @RequiresApi(Build.VERSION_CODES.M)
     public abstract boolean checkSelfPermission(@NonNull String permission);
 
+    /**
+     * Reads grant state of all permissions that are requested by the application with a single call.
+     * If available, a {@link Requirement} uses it to check all permissions of a validation pass instead
+     * of calling {@link #checkSelfPermission(String)} for each of them. Default implementation returns null.
+     * <p>
+     * Please note that if you override {@link #checkSelfPermission(String)} in a custom dispatcher,
+     * this method must be consistent with it
+     *
+     * @return map of requested permission to its grant state or null if it is not available
+     * @since 1.2.0
+     */
+    @Nullable
+    public Map<String, Boolean> checkSelfPermissions() {
+        return null;
+    }
+
     @RequiresApi(Build.VERSION_CODES.M)
     public abstract boolean shouldShowRequestPermissionRationale(@NonNull String permission);
 }
@@ -5,52 +5,68 @@ import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.os.Build;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.annotation.RequiresApi;
 
+import java.lang.ref.WeakReference;
+import java.util.Map;
+
 /**
+ * Changed in 1.2.0: holds a weak reference to an Activity, so a long-lived holder of this dispatcher
+ * (or a {@link Requirement} that uses it) won\'t keep the Activity alive. If the Activity was garbage
+ * collected all methods throw IllegalStateException
+ *
  * @since 1.1.0
  */
 @SuppressWarnings("WeakerAccess")
 public class EventDispatcherActivity<A extends Activity> extends EventDispatcher<A> {
 
-    private final A activity;
+    private final WeakReference<A> reference;
 
     public EventDispatcherActivity(@NonNull A activity) {
-        this.activity = activity;
+        this.reference = new WeakReference<>(activity);
     }
 
     @NonNull
     @Override
     public Activity activity() {
-        return activity;
+        return target();
     }
 
     @NonNull
     @Override
     public A target() {
+        final A activity = reference.get();
+        Preconditions.checkNonNull(activity, "Activity of this EventDispatcher has been garbage collected");
         return activity;
     }
 
     @Override
     public void startActivityForResult(@NonNull Intent intent, int requestCode) {
-        activity.startActivityForResult(intent, requestCode);
+        target().startActivityForResult(intent, requestCode);
     }
 
     @Override
     @RequiresApi(Build.VERSION_CODES.M)
     public void requestPermission(@NonNull String permission, int requestCode) {
-        activity.requestPermissions(new String[]{permission}, requestCode);
+        target().requestPermissions(new String[]{permission}, requestCode);
     }
 
     @Override
     @RequiresApi(Build.VERSION_CODES.M)
     public boolean checkSelfPermission(@NonNull String permission) {
-        return activity.checkSelfPermission(permission) == PackageManager.PERMISSION_GRANTED;
+        return target().checkSelfPermission(permission) == PackageManager.PERMISSION_GRANTED;
+    }
+
+    @Nullable
+    @Override
+    public Map<String, Boolean> checkSelfPermissions() {
+        return PermissionSnapshot.requestedPermissions(target());
     }
 
     @Override
     @RequiresApi(Build.VERSION_CODES.M)
     public boolean shouldShowRequestPermissionRationale(@NonNull String permission) {
-        return activity.shouldShowRequestPermissionRationale(permission);
+        return target().shouldShowRequestPermissionRationale(permission);
     }
 }
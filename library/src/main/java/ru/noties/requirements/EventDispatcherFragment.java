@@ -6,52 +6,68 @@ import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.os.Build;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.annotation.RequiresApi;
 
+import java.lang.ref.WeakReference;
+import java.util.Map;
+
 /**
+ * Changed in 1.2.0: holds a weak reference to a Fragment, so a long-lived holder of this dispatcher
+ * (or a {@link Requirement} that uses it) won\'t keep the Fragment (and its Activity) alive. If the
+ * Fragment was garbage collected all methods throw IllegalStateException
+ *
  * @since 1.1.0
  */
 @SuppressWarnings("WeakerAccess")
 public class EventDispatcherFragment<F extends Fragment> extends EventDispatcher<F> {
 
-    private final F fragment;
+    private final WeakReference<F> reference;
 
     public EventDispatcherFragment(@NonNull F fragment) {
-        this.fragment = fragment;
+        this.reference = new WeakReference<>(fragment);
     }
 
     @NonNull
     @Override
     public Activity activity() {
-        return fragment.getActivity();
+        return target().getActivity();
     }
 
     @NonNull
     @Override
     public F target() {
+        final F fragment = reference.get();
+        Preconditions.checkNonNull(fragment, "Fragment of this EventDispatcher has been garbage collected");
         return fragment;
     }
 
     @Override
     public void startActivityForResult(@NonNull Intent intent, int requestCode) {
-        fragment.startActivityForResult(intent, requestCode);
+        target().startActivityForResult(intent, requestCode);
     }
 
     @Override
     @RequiresApi(Build.VERSION_CODES.M)
     public void requestPermission(@NonNull String permission, int requestCode) {
-        fragment.requestPermissions(new String[]{permission}, requestCode);
+        target().requestPermissions(new String[]{permission}, requestCode);
     }
 
     @Override
     @RequiresApi(Build.VERSION_CODES.M)
     public boolean checkSelfPermission(@NonNull String permission) {
-        return fragment.getActivity().checkSelfPermission(permission) == PackageManager.PERMISSION_GRANTED;
+        return activity().checkSelfPermission(permission) == PackageManager.PERMISSION_GRANTED;
+    }
+
+    @Nullable
+    @Override
+    public Map<String, Boolean> checkSelfPermissions() {
+        return PermissionSnapshot.requestedPermissions(activity());
     }
 
     @Override
     @RequiresApi(Build.VERSION_CODES.M)
     public boolean shouldShowRequestPermissionRationale(@NonNull String permission) {
-        return fragment.shouldShowRequestPermissionRationale(permission);
+        return target().shouldShowRequestPermissionRationale(permission);
     }
 }
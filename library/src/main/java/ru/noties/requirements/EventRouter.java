@@ -0,0 +1,95 @@
+package ru.noties.requirements;
+
+import android.annotation.TargetApi;
+import android.content.Intent;
+import android.os.Build;
+import android.support.annotation.NonNull;
+
+/**
+ * Activity-level router of `onActivityResult` and `onRequestPermissionsResult` events. Each owner
+ * of requirements inside an activity (for example a nested Fragment) obtains a {@link Route}: its
+ * {@link EventDispatcher} is wrapped, so requests are dispatched through the Activity with index of
+ * the route and a slot of the original request code encoded in a request code. Encoded request
+ * code uses only lower 16 bits (as required by support FragmentActivity) and always has bit 15 set,
+ * so request codes that Activity dispatches itself must be lower than `0x8000` in order not to
+ * be mistaken for routed ones. Activity redirects all events to this router, which decodes
+ * the request code and delivers the event to the {@link EventSource} of the owning route with
+ * the original request code. Hosts no longer need to forward events through every level of fragments.
+ * <p>
+ * Must be used from the main thread.
+ *
+ * @see #create()
+ * @see #register()
+ * @since 1.2.0
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public abstract class EventRouter {
+
+    /**
+     * Maximum number of simultaneously registered routes (index of a route takes 7 bits of
+     * a 16-bit request code). Each route can dispatch up to 256 distinct request codes
+     */
+    public static final int MAX_ROUTES = 0x7f;
+
+    /**
+     * Factory method to obtain an instance of {@link EventRouter}. Usually one instance per Activity
+     *
+     * @return new instance of {@link EventRouter}
+     */
+    @NonNull
+    public static EventRouter create() {
+        return new EventRouterImpl();
+    }
+
+    /**
+     * A route of a single owner of requirements
+     */
+    public interface Route {
+
+        /**
+         * @return {@link EventSource} that receives events of this route (with decoded request codes)
+         */
+        @NonNull
+        EventSource eventSource();
+
+        /**
+         * Wraps supplied dispatcher, so its requests are dispatched through the Activity and
+         * their results are delivered to {@link #eventSource()} of this route
+         *
+         * @param eventDispatcher to wrap
+         * @return wrapped {@link EventDispatcher} to be used with {@link RequirementBuilder}
+         */
+        @NonNull
+        <T> EventDispatcher<T> dispatcher(@NonNull EventDispatcher<T> eventDispatcher);
+
+        /**
+         * Releases this route (usually when its owner is destroyed). Events for this route that
+         * are received afterwards are not consumed
+         */
+        void unregister();
+    }
+
+    /**
+     * Registers new route
+     *
+     * @return {@link Route}
+     * @throws IllegalStateException if maximum number of routes ({@link #MAX_ROUTES}) is registered
+     */
+    @NonNull
+    public abstract Route register() throws IllegalStateException;
+
+    /**
+     * Activity must call this method when `onActivityResult` event is received
+     *
+     * @return a boolean indicating if event was consumed
+     */
+    public abstract boolean onActivityResult(int requestCode, int resultCode, Intent data);
+
+    /**
+     * Activity must call this method when `onRequestPermissionsResult` event is received
+     *
+     * @return a boolean indicating if event was consumed
+     */
+    @TargetApi(Build.VERSION_CODES.M)
+    public abstract boolean onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults);
+}
@@ -0,0 +1,139 @@
+package ru.noties.requirements;
+
+import android.content.Intent;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Arrays;
+
+// @since 1.2.0
+class EventRouterImpl extends EventRouter {
+
+    // support FragmentActivity accepts only lower 16 bits of a request code, so a routed request code is:
+    // bit 15 - routed flag, bits 8..14 - index of a route (starting with 1), bits 0..7 - slot of
+    // a request code of the route (a route remembers each distinct request code it dispatches)
+    private static final int ROUTED = 0x8000;
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+
+    // routes by index, 0 is reserved for not routed request codes
+    private RouteImpl[] routes = new RouteImpl[8];
+
+    @NonNull
+    @Override
+    public Route register() {
+
+        for (int i = 1; i < routes.length; i++) {
+            if (routes[i] == null) {
+                return routes[i] = new RouteImpl(i);
+            }
+        }
+
+        final int index = routes.length;
+        if (index > MAX_ROUTES) {
+            throw new IllegalStateException("Maximum number of routes is registered: " + MAX_ROUTES);
+        }
+
+        routes = Arrays.copyOf(routes, Math.min(index * 2, MAX_ROUTES + 1));
+
+        return routes[index] = new RouteImpl(index);
+    }
+
+    @Override
+    public boolean onActivityResult(int requestCode, int resultCode, Intent data) {
+        final RouteImpl route = route(requestCode);
+        return route != null
+                && route.eventSource.onActivityResult(route.requestCode(requestCode), resultCode, data);
+    }
+
+    @Override
+    public boolean onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
+        final RouteImpl route = route(requestCode);
+        return route != null
+                && route.eventSource.onRequestPermissionsResult(route.requestCode(requestCode), permissions, grantResults);
+    }
+
+    @Nullable
+    private RouteImpl route(int requestCode) {
+
+        if ((requestCode & ~RequestCode.MAX) != 0 || (requestCode & ROUTED) == 0) {
+            return null;
+        }
+
+        final int index = (requestCode >>> SLOT_BITS) & MAX_ROUTES;
+        final RouteImpl route = index < routes.length
+                ? routes[index]
+                : null;
+
+        return route != null && route.requestCode(requestCode) >= 0
+                ? route
+                : null;
+    }
+
+    class RouteImpl implements Route {
+
+        private final int index;
+        private final EventSource eventSource;
+
+        // request codes by slot
+        private int[] requestCodes = new int[4];
+        private int size;
+
+        RouteImpl(int index) {
+            this.index = index;
+            this.eventSource = EventSource.create();
+        }
+
+        int encode(int requestCode) {
+
+            int slot = -1;
+            for (int i = 0; i < size; i++) {
+                if (requestCodes[i] == requestCode) {
+                    slot = i;
+                    break;
+                }
+            }
+
+            if (slot < 0) {
+                if (size == SLOTS) {
+                    throw new IllegalStateException("Maximum number of distinct request codes is " +
+                            "dispatched through a route: " + SLOTS);
+                }
+                if (size == requestCodes.length) {
+                    requestCodes = Arrays.copyOf(requestCodes, Math.min(size * 2, SLOTS));
+                }
+                slot = size;
+                requestCodes[size++] = requestCode;
+            }
+
+            return ROUTED | (index << SLOT_BITS) | slot;
+        }
+
+        // -1 if supplied request code was not encoded by this route
+        int requestCode(int encoded) {
+            final int slot = encoded & (SLOTS - 1);
+            return slot < size
+                    ? requestCodes[slot]
+                    : -1;
+        }
+
+        @NonNull
+        @Override
+        public EventSource eventSource() {
+            return eventSource;
+        }
+
+        @NonNull
+        @Override
+        public <T> EventDispatcher<T> dispatcher(@NonNull EventDispatcher<T> eventDispatcher) {
+            return new RoutedEventDispatcher<>(eventDispatcher, this);
+        }
+
+        @Override
+        public void unregister() {
+            if (routes[index] == this) {
+                routes[index] = null;
+            }
+        }
+    }
+}
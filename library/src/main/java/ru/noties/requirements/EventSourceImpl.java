@@ -3,6 +3,8 @@ package ru.noties.requirements;
 import android.content.Intent;
 import android.support.annotation.NonNull;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 import ru.noties.listeners.Listeners;
 
 class EventSourceImpl extends EventSource {
@@ -17,7 +19,7 @@ class EventSourceImpl extends EventSource {
 
         boolean result = false;
 
-        for (Listener listener : listeners.begin()) {
+        for (Listener listener : listeners()) {
             result |= listener.onActivityResult(requestCode, resultCode, data);
         }
 
@@ -27,9 +29,11 @@ class EventSourceImpl extends EventSource {
     @Override
     public boolean onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
 
+        PermissionStore.instance().update(permissions, grantResults);
+
         boolean result = false;
 
-        for (Listener listener : listeners.begin()) {
+        for (Listener listener : listeners()) {
             result |= listener.onRequestPermissionsResult(requestCode, permissions, grantResults);
         }
 
@@ -42,21 +46,35 @@ class EventSourceImpl extends EventSource {
         return new SubscriptionImpl(listener);
     }
 
+    // listeners can be added and removed (from any thread) whilst an event is being dispatched,
+    // dispatch iterates a snapshot that is taken under the lock
+    @NonNull
+    private Iterable<Listener> listeners() {
+        synchronized (listeners) {
+            return listeners.begin();
+        }
+    }
+
     private class SubscriptionImpl implements Subscription {
 
-        private Listener listener;
+        // @since 1.2.0 atomic, so concurrent unsubscribe calls remove listener exactly once
+        private final AtomicReference<Listener> listener;
 
         private SubscriptionImpl(@NonNull Listener listener) {
-            this.listener = listener;
-            listeners.add(listener);
+            this.listener = new AtomicReference<>(listener);
+            synchronized (listeners) {
+                listeners.add(listener);
+            }
         }
 
         @Override
         public void unsubscribe() {
-            // null check in case called unsubscribe multiple times
+            // can be called multiple times
+            final Listener listener = this.listener.getAndSet(null);
             if (listener != null) {
-                listeners.remove(listener);
-                listener = null;
+                synchronized (listeners) {
+                    listeners.remove(listener);
+                }
             }
         }
     }
@@ -0,0 +1,48 @@
+package ru.noties.requirements;
+
+import android.support.annotation.NonNull;
+import android.view.Choreographer;
+
+/**
+ * {@link Scheduler} that executes work at the beginning of a following frame of a Choreographer,
+ * so work that is split between messages does not delay drawing of the current frame. Must be
+ * created and used on a Looper thread (usually the main one).
+ *
+ * @see RequirementBuilder#timeSlicing(long)
+ * @since 1.2.0
+ */
+@SuppressWarnings("WeakerAccess")
+public class FrameScheduler extends Scheduler {
+
+    private final Choreographer choreographer;
+
+    /**
+     * @throws IllegalStateException if current thread has no Looper
+     */
+    public FrameScheduler() throws IllegalStateException {
+        this.choreographer = Choreographer.getInstance();
+    }
+
+    @Override
+    public void execute(@NonNull Runnable runnable) {
+        schedule(runnable, 0L);
+    }
+
+    @NonNull
+    @Override
+    public Task schedule(@NonNull final Runnable runnable, long delayMillis) {
+        final Choreographer.FrameCallback callback = new Choreographer.FrameCallback() {
+            @Override
+            public void doFrame(long frameTimeNanos) {
+                runnable.run();
+            }
+        };
+        choreographer.postFrameCallbackDelayed(callback, delayMillis);
+        return new Task() {
+            @Override
+            public void cancel() {
+                choreographer.removeFrameCallback(callback);
+            }
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package ru.noties.requirements;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link RequirementCase} for which `requirements-compiler` annotation processor must
+ * generate a request code constant. Constants are generated in a `RequirementRequestCodes` class
+ * in the package of annotated case and have exactly the same value as
+ * {@link RequestCode#createRequestCode(Class)} would return, but are computed (and checked for
+ * collisions) at compile time.
+ *
+ * <pre>
+ * &#64;GenerateRequestCode
+ * public class NetworkCase extends RequirementCase&lt;Activity&gt; {
+ *     private static final int REQUEST_CODE = RequirementRequestCodes.NETWORK_CASE;
+ * }
+ * </pre>
+ *
+ * @since 1.2.0
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateRequestCode {
+
+    /**
+     * @return name of generated constant. If empty (default), name is derived from the class name
+     * (`NetworkCase` - `NETWORK_CASE`)
+     */
+    String value() default "";
+}
@@ -0,0 +1,97 @@
+package ru.noties.requirements;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link Scheduler} that executes work on a Looper thread. Work that is submitted without a delay
+ * is coalesced: all runnables submitted before the Looper gets to them are executed in a single
+ * message (in submission order).
+ *
+ * @see #mainThread()
+ * @since 1.2.0
+ */
+@SuppressWarnings("WeakerAccess")
+public class LooperScheduler extends Scheduler {
+
+    /**
+     * @return Scheduler that executes work on the main thread
+     */
+    @NonNull
+    public static LooperScheduler mainThread() {
+        return MainHolder.INSTANCE;
+    }
+
+    private final Handler handler;
+
+    private final Object lock = new Object();
+
+    private List<Runnable> pending = new ArrayList<>(3);
+    private boolean isPosted;
+
+    public LooperScheduler(@NonNull Looper looper) {
+        this.handler = new Handler(looper);
+    }
+
+    @Override
+    public void execute(@NonNull Runnable runnable) {
+        synchronized (lock) {
+            pending.add(runnable);
+            if (isPosted) {
+                return;
+            }
+            isPosted = true;
+        }
+        handler.post(drain);
+    }
+
+    @NonNull
+    @Override
+    public Task schedule(@NonNull final Runnable runnable, long delayMillis) {
+        // wrap, so cancellation of this task does not affect other posts of the same runnable
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                runnable.run();
+            }
+        };
+        handler.postDelayed(task, delayMillis);
+        return new Task() {
+            @Override
+            public void cancel() {
+                handler.removeCallbacks(task);
+            }
+        };
+    }
+
+    /**
+     * @return true if called on the Looper thread of this scheduler
+     */
+    @Override
+    public boolean isCurrentThread() {
+        return handler.getLooper() == Looper.myLooper();
+    }
+
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            final List<Runnable> runnables;
+            synchronized (lock) {
+                runnables = pending;
+                pending = new ArrayList<>(3);
+                isPosted = false;
+            }
+            for (Runnable runnable : runnables) {
+                runnable.run();
+            }
+        }
+    };
+
+    private static class MainHolder {
+        static final LooperScheduler INSTANCE = new LooperScheduler(Looper.getMainLooper());
+    }
+}
@@ -40,10 +40,19 @@ public abstract class PermissionCase<T> extends RequirementCase<T> {
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Since 1.2.0 a permission that is known to be granted (shared by all requirements in a process)
+     * is not checked again
      */
     @Override
     public boolean meetsRequirement() {
-        return checkSelfPermission(permission);
+        final PermissionStore store = PermissionStore.instance();
+        if (store.isGranted(permission)) {
+            return true;
+        }
+        final boolean granted = checkSelfPermission(permission);
+        store.put(permission, granted);
+        return granted;
     }
 
     /**
@@ -76,9 +85,12 @@ public abstract class PermissionCase<T> extends RequirementCase<T> {
     /**
      * This method must be called after rationale was shown ({@link #showPermissionRationale()}) and
      * user gave his/her agreement
+     * <p>
+     * Changed in 1.2.0: permission is requested through {@link EventDispatcher} (previously always
+     * through the Activity)
      */
     protected void requestPermission() {
-        activity().requestPermissions(new String[]{permission}, requestCode);
+        requestPermission(permission, requestCode);
     }
 
     /**
@@ -129,6 +141,40 @@ public abstract class PermissionCase<T> extends RequirementCase<T> {
         return false;
     }
 
+    /**
+     * @return identity key that is derived from the permission, so the same permission
+     * requested by different cases is validated only once
+     * @since 1.2.0
+     */
+    @NonNull
+    @Override
+    public String identityKey() {
+        return "permission:" + permission;
+    }
+
+    /**
+     * A granted permission can be revoked only from the Settings application, which kills the
+     * process, so satisfied state of this case can be cached
+     *
+     * @since 1.2.0
+     */
+    @Override
+    public boolean isObservable() {
+        return true;
+    }
+
+    /**
+     * Permissions are granted to the application (all its processes) and revoking a permission
+     * kills all of them. Shared state written before such a restart is never trusted by
+     * {@link SharedState}, so shared satisfied state is valid whilst processes are running
+     *
+     * @since 1.2.0
+     */
+    @Override
+    public long sharedStateValidityMillis() {
+        return Long.MAX_VALUE;
+    }
+
     @NonNull
     public String permission() {
         return permission;
@@ -0,0 +1,71 @@
+package ru.noties.requirements;
+
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Grant state of permissions that is read once per validation pass. Grant state of all requested
+ * permissions is obtained lazily (on first permission check) with a single call to
+ * {@link EventDispatcher#checkSelfPermissions()}. If it is not available or a permission is not
+ * a part of it, {@link EventDispatcher#checkSelfPermission(String)} is used.
+ */
+// @since 1.2.0
+class PermissionSnapshot {
+
+    // reads grant state of all permissions requested by the application with a single IPC
+    @Nullable
+    static Map<String, Boolean> requestedPermissions(@NonNull Context context) {
+
+        final PackageInfo info;
+        try {
+            info = context.getPackageManager()
+                    .getPackageInfo(context.getPackageName(), PackageManager.GET_PERMISSIONS);
+        } catch (PackageManager.NameNotFoundException e) {
+            return null;
+        }
+
+        final String[] permissions = info.requestedPermissions;
+        final int[] flags = info.requestedPermissionsFlags;
+        if (permissions == null || flags == null) {
+            return null;
+        }
+
+        final Map<String, Boolean> map = new HashMap<>(permissions.length);
+        for (int i = 0, length = Math.min(permissions.length, flags.length); i < length; i++) {
+            map.put(permissions[i], (flags[i] & PackageInfo.REQUESTED_PERMISSION_GRANTED) != 0);
+        }
+        return map;
+    }
+
+    private final EventDispatcher dispatcher;
+
+    private Map<String, Boolean> permissions;
+    private boolean isLoaded;
+
+    PermissionSnapshot(@NonNull EventDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    boolean isGranted(@NonNull String permission) {
+
+        if (!isLoaded) {
+            isLoaded = true;
+            permissions = dispatcher.checkSelfPermissions();
+        }
+
+        final Boolean granted = permissions != null
+                ? permissions.get(permission)
+                : null;
+
+        //noinspection NewApi
+        return granted != null
+                ? granted
+                : dispatcher.checkSelfPermission(permission);
+    }
+}
@@ -0,0 +1,106 @@
+package ru.noties.requirements;
+
+import android.content.pm.PackageManager;
+import android.support.annotation.NonNull;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Process-wide granted permissions. Is updated from every permissions result that passes
+ * through any {@link EventSource} and from checks of {@link PermissionCase}, so a permission
+ * granted in one chain is not checked again by other requirements. Cases of a permission that is
+ * no longer granted are notified ({@link RequirementCase#notifyChanged()}).
+ * <p>
+ * Denied state is not stored: a permission can be granted in the Settings application or by another
+ * process (which might not deliver any event to this one), so a denied permission is checked again
+ * in each validation pass.
+ */
+// @since 1.2.0
+class PermissionStore {
+
+    @NonNull
+    static PermissionStore instance() {
+        return Holder.INSTANCE;
+    }
+
+    private final Set<String> granted = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    // weak, cases are owned by requirements
+    private final ConcurrentHashMap<String, List<WeakReference<PermissionCase>>> cases = new ConcurrentHashMap<>();
+
+    // called when a case is added to a built requirement
+    void register(@NonNull PermissionCase permissionCase) {
+
+        final String permission = permissionCase.permission();
+
+        List<WeakReference<PermissionCase>> list = cases.get(permission);
+        if (list == null) {
+            list = new CopyOnWriteArrayList<>();
+            final List<WeakReference<PermissionCase>> previous = cases.putIfAbsent(permission, list);
+            if (previous != null) {
+                list = previous;
+            }
+        }
+
+        synchronized (list) {
+
+            for (WeakReference<PermissionCase> reference : list) {
+                final PermissionCase registered = reference.get();
+                if (registered == null) {
+                    list.remove(reference);
+                } else if (registered == permissionCase) {
+                    // the same case is added to multiple requirements
+                    return;
+                }
+            }
+
+            list.add(new WeakReference<>(permissionCase));
+        }
+    }
+
+    /**
+     * @return true if supplied permission is known to be granted
+     */
+    boolean isGranted(@NonNull String permission) {
+        return granted.contains(permission);
+    }
+
+    void put(@NonNull String permission, boolean isGranted) {
+        if (isGranted) {
+            // cases that are not satisfied are checked again anyway, nothing to notify
+            granted.add(permission);
+        } else if (granted.remove(permission)) {
+            notifyChanged(permission);
+        }
+    }
+
+    void update(@NonNull String[] permissions, @NonNull int[] grantResults) {
+        for (int i = 0, length = Math.min(permissions.length, grantResults.length); i < length; i++) {
+            put(permissions[i], PackageManager.PERMISSION_GRANTED == grantResults[i]);
+        }
+    }
+
+    private void notifyChanged(@NonNull String permission) {
+        final List<WeakReference<PermissionCase>> list = cases.get(permission);
+        if (list != null) {
+            for (WeakReference<PermissionCase> reference : list) {
+                final PermissionCase permissionCase = reference.get();
+                if (permissionCase != null) {
+                    permissionCase.notifyChanged();
+                }
+            }
+        }
+    }
+
+    private static class Holder {
+        static final PermissionStore INSTANCE = new PermissionStore();
+    }
+
+    private PermissionStore() {
+    }
+}
@@ -3,6 +3,10 @@ package ru.noties.requirements;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.concurrent.Executor;
+
 /**
  * @see RequirementBuilder
  * @see RequirementBuilder#create(EventDispatcher, EventSource)
@@ -12,6 +16,13 @@ public abstract class Requirement {
 
     // todo: update javadoc
 
+    /**
+     * Default period of time (in milliseconds) during which result of {@link #warmUp()} is used
+     *
+     * @since 1.2.0
+     */
+    public static final long WARM_UP_VALIDITY_MILLIS = 1000L;
+
     /**
      * Listener to be notified about requirement resolution process
      *
@@ -32,6 +43,35 @@ public abstract class Requirement {
         void onRequirementFailure(@Nullable Payload payload);
     }
 
+    /**
+     * Listener that is additionally notified about progress of each case of a chain, so work that
+     * depends on a case can be started before the whole chain is resolved. Progress callbacks are
+     * delivered in order, on the executor supplied with this listener (or synchronously).
+     * <p>
+     * `remaining` is the number of cases of this validation that are not satisfied yet
+     * (including current case for {@link #onCaseEntered(RequirementCase, int)})
+     *
+     * @see RequirementListenerAdapter
+     * @since 1.2.0
+     */
+    public interface ProgressListener extends Listener {
+
+        /**
+         * Case became current in a chain
+         */
+        void onCaseEntered(@NonNull RequirementCase<?> requirementCase, int remaining);
+
+        /**
+         * Case is satisfied without resolution (by a check or its cached state)
+         */
+        void onCaseSatisfied(@NonNull RequirementCase<?> requirementCase, int remaining);
+
+        /**
+         * Resolution of case succeeded
+         */
+        void onCaseResolved(@NonNull RequirementCase<?> requirementCase, int remaining);
+    }
+
     /**
      * Please note that this method allows multiple listeners. If resolution process is started and
      * validate was called again, then listener won\'t trigger full validation process, but instead
@@ -41,15 +81,118 @@ public abstract class Requirement {
      */
     public abstract void validate(@NonNull Listener listener);
 
+    /**
+     * The same as {@link #validate(Listener)}, but supplied listener will be notified via supplied
+     * executor. Listener is always notified after this requirement has finished resolution, so
+     * validation can be started again from the listener.
+     * <p>
+     * Ordering guarantees:
+     * <ul>
+     * <li>all listeners that share an executor are notified in a single task in the order they were added
+     * <li>tasks are submitted to executors in the order executors were first supplied
+     * <li>listeners without an executor ({@link #validate(Listener)}) are notified synchronously
+     * after all tasks were submitted
+     * </ul>
+     *
+     * @param listener {@link Listener} to be notified about resolution result
+     * @param executor Executor to notify listener on, null to notify synchronously
+     * @see #validate(Listener)
+     * @since 1.2.0
+     */
+    public abstract void validate(@NonNull Listener listener, @Nullable Executor executor);
+
     /**
      * Synchronous method to check if the whole requirement cases chain meets requirement. Simply
      * returns true or false without triggering requirement resolution
      *
+     * <p>
+     * Since 1.2.0 this method does not mutate attachment state of cases, so it can be called whilst
+     * resolution is in progress. It can be called from any thread, but everything is executed on the
+     * calling thread: {@link RequirementCase#meetsRequirement()} of cases (which then must be
+     * thread-safe and must not touch views, see {@link RequirementCase#retryPolicy()}), recording of
+     * statistics and metrics and reads of shared state (see {@link RequirementBuilder#sharedState(SharedState)}).
+     * If this requirement is used only from the main thread, cases need not be thread-safe.
+     *
      * @return a boolean indicating if this requirement is valid (meets requirement)
      * @since 1.1.0
      */
     public abstract boolean isValid();
 
+    /**
+     * Read-only check of all cases (it does not stop at the first unsatisfied case). Like
+     * {@link #isValid()} can be called from any thread (with the same requirements to cases). Useful with a check-only dispatcher
+     * ({@link EventDispatcher#create(android.content.Context)}) to find out whether work that
+     * depends on this requirement can run, or which cases need UI resolution
+     *
+     * @return cases that are not satisfied (and would need resolution) in the order they are checked,
+     * empty list if this requirement is valid
+     * @since 1.2.0
+     */
+    @NonNull
+    public abstract List<RequirementCase<?>> unsatisfiedCases();
+
+    /**
+     * Schedules a check of the whole chain when main thread becomes idle. Result of this check is kept
+     * for a short period of time and is used by {@link #isValid()} and {@link #validate(Listener)},
+     * so they do not check cases again (for example if warm up is started when a screen appears,
+     * a following click won\'t pay the cost of checking). The same as calling {@link #warmUp(long)}
+     * with {@link #WARM_UP_VALIDITY_MILLIS}
+     * <p>
+     * Must be called from the main thread (the thread of main scheduler if a custom one is used).
+     * A validation that is started whilst warm up result is valid does not check cases, but
+     * {@link ProgressListener} still receives entered and satisfied events of each case.
+     *
+     * @throws IllegalStateException if called from another thread than the main one
+     * @see #warmUp(long)
+     * @since 1.2.0
+     */
+    public abstract void warmUp() throws IllegalStateException;
+
+    /**
+     * @param validityMillis period of time (in milliseconds) during which result of warm up check is used
+     * @throws IllegalStateException if called from another thread than the main one
+     * @see #warmUp()
+     * @since 1.2.0
+     */
+    public abstract void warmUp(long validityMillis) throws IllegalStateException;
+
+    /**
+     * Discards cached state of all cases (and result of {@link #warmUp()}), so they will be checked
+     * again by following {@link #isValid()} or {@link #validate(Listener)} call
+     *
+     * @see RequirementCase#isObservable()
+     * @since 1.2.0
+     */
+    public abstract void invalidate();
+
+    /**
+     * Creates a {@link RequirementCase} that is satisfied when this requirement is valid, so a common
+     * chain (for example permission and location services) can be defined once and added to other
+     * requirements. Cached state of this requirement and its resolution in progress are shared by all
+     * of them. Created case is observable if all cases of this requirement are observable, and it
+     * covers cases of this requirement (so they are not checked twice in a parent chain).
+     * <p>
+     * Events of this requirement must be delivered to its own {@link EventSource} (it can be the same
+     * EventSource that is used by parent requirements). Cancellation of a parent requirement does not
+     * cancel this one.
+     *
+     * @return new {@link RequirementCase} that delegates to this requirement
+     * @since 1.2.0
+     */
+    @NonNull
+    public abstract RequirementCase<Object> asCase();
+
+    /**
+     * Prints current state of this requirement: current case, its pending request code, time spent
+     * in current step, number of listeners and recent transitions. Must be called from the main thread
+     *
+     * @param prefix to print before each line
+     * @param writer to print to
+     * @see RequirementRegistry#dump(String, PrintWriter)
+     * @since 1.2.0
+     */
+    public abstract void dump(@NonNull String prefix, @NonNull PrintWriter writer);
+
     /**
      * A method to cancel requirement resolution process. The same as calling {@link #cancel(Payload)}
      * with null payload
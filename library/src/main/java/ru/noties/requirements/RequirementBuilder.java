@@ -1,5 +1,6 @@
 package ru.noties.requirements;
 
+import android.support.annotation.IntRange;
 import android.support.annotation.NonNull;
 
 import java.util.Collection;
@@ -77,6 +78,108 @@ public abstract class RequirementBuilder<T> {
             @NonNull Collection<? extends RequirementCase<? super T>> requirementCases
     ) throws IllegalStateException;
 
+    /**
+     * Enables adaptive ordering of cases. Each {@link RequirementCase#meetsRequirement()} call
+     * will be recorded in supplied {@link CaseStatistics} and cases that are marked as order-independent
+     * will be checked in the order that minimizes expected time before first failure.
+     *
+     * @param statistics {@link CaseStatistics} to record and order cases
+     * @return this instance for chaining
+     * @throws IllegalStateException if this builder instance had been built already
+     * @see RequirementCase#isOrderIndependent()
+     * @see CaseStatistics#create(android.content.Context)
+     * @since 1.2.0
+     */
+    @NonNull
+    public abstract RequirementBuilder<T> adaptiveOrdering(@NonNull CaseStatistics statistics)
+            throws IllegalStateException;
+
+    /**
+     * Shares satisfied state of cases with other processes of the application. Cases that declare
+     * {@link RequirementCase#sharedStateValidityMillis()} (and have {@link RequirementCase#identityKey()})
+     * will use state recorded by other processes instead of checking again.
+     *
+     * @param sharedState {@link SharedState}
+     * @return this instance for chaining
+     * @throws IllegalStateException if this builder instance had been built already
+     * @see SharedState#create(android.content.Context)
+     * @since 1.2.0
+     */
+    @NonNull
+    public abstract RequirementBuilder<T> sharedState(@NonNull SharedState sharedState)
+            throws IllegalStateException;
+
+    /**
+     * Sets {@link Scheduler} of the thread where requirement lives. Results that are delivered
+     * from other threads (results of background work and results of cases), continuations of
+     * time sliced chains and warm up checks are executed with it, so a whole session can be made
+     * deterministic with {@link VirtualTimeScheduler}. By default {@link LooperScheduler#mainThread()}
+     *
+     * @param scheduler {@link Scheduler}
+     * @return this instance for chaining
+     * @throws IllegalStateException if this builder instance had been built already
+     * @since 1.2.0
+     */
+    @NonNull
+    public abstract RequirementBuilder<T> mainScheduler(@NonNull Scheduler scheduler)
+            throws IllegalStateException;
+
+    /**
+     * Sets {@link Scheduler} that is used for checks that must not block the main thread
+     * (for example {@link RetryPolicy} re-checks). By default {@link Scheduler#background()},
+     * which is obtained only when a case is retried
+     *
+     * @param scheduler {@link Scheduler}
+     * @return this instance for chaining
+     * @throws IllegalStateException if this builder instance had been built already
+     * @since 1.2.0
+     */
+    @NonNull
+    public abstract RequirementBuilder<T> backgroundScheduler(@NonNull Scheduler scheduler)
+            throws IllegalStateException;
+
+    /**
+     * Records every engine event of created {@link Requirement} with supplied recorder, so sessions
+     * can be replayed later (for example as deterministic performance regression tests)
+     *
+     * @param traceRecorder {@link TraceRecorder}
+     * @return this instance for chaining
+     * @throws IllegalStateException if this builder instance had been built already
+     * @see TraceReplayer
+     * @since 1.2.0
+     */
+    @NonNull
+    public abstract RequirementBuilder<T> trace(@NonNull TraceRecorder traceRecorder)
+            throws IllegalStateException;
+
+    /**
+     * Records latency of checks and resolutions and funnel counts of created {@link Requirement}
+     * with supplied metrics. One instance can be shared by multiple requirements
+     *
+     * @param metrics {@link RequirementMetrics}
+     * @return this instance for chaining
+     * @throws IllegalStateException if this builder instance had been built already
+     * @since 1.2.0
+     */
+    @NonNull
+    public abstract RequirementBuilder<T> metrics(@NonNull RequirementMetrics metrics)
+            throws IllegalStateException;
+
+    /**
+     * Enables cooperative time slicing of a chain: when checks of satisfied cases use up supplied
+     * budget, the chain stops and continues in a following frame ({@link FrameScheduler}), so a long
+     * chain does not overrun a frame. A case is never interrupted, a single slow check can still
+     * exceed the budget
+     *
+     * @param budgetMillis time budget of a single message in milliseconds
+     * @return this instance for chaining
+     * @throws IllegalStateException if this builder instance had been built already
+     * @since 1.2.0
+     */
+    @NonNull
+    public abstract RequirementBuilder<T> timeSlicing(@IntRange(from = 1) long budgetMillis)
+            throws IllegalStateException;
+
     /**
      * Please note that if no {@link RequirementCase} were added, then build {@link Requirement}
      * will always be in `success` state
@@ -4,8 +4,8 @@ import android.support.annotation.NonNull;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 // @since 1.1.0
 class RequirementBuilderImpl<T> extends RequirementBuilder<T> {
@@ -13,6 +13,13 @@ class RequirementBuilderImpl<T> extends RequirementBuilder<T> {
     private EventDispatcher<T> dispatcher;
     private EventSource source;
     private List<RequirementCase<? super T>> requirementCases;
+    private CaseStatistics statistics;
+    private SharedState sharedState;
+    private Scheduler mainScheduler;
+    private Scheduler backgroundScheduler;
+    private TraceRecorder traceRecorder;
+    private RequirementMetrics metrics;
+    private long sliceBudgetNanos;
 
     private boolean isBuilt;
 
@@ -73,6 +80,87 @@ class RequirementBuilderImpl<T> extends RequirementBuilder<T> {
         return this;
     }
 
+    @NonNull
+    @Override
+    public RequirementBuilder<T> adaptiveOrdering(@NonNull CaseStatistics statistics) {
+
+        checkState();
+
+        this.statistics = statistics;
+
+        return this;
+    }
+
+    @NonNull
+    @Override
+    public RequirementBuilder<T> sharedState(@NonNull SharedState sharedState) {
+
+        checkState();
+
+        this.sharedState = sharedState;
+
+        return this;
+    }
+
+    @NonNull
+    @Override
+    public RequirementBuilder<T> mainScheduler(@NonNull Scheduler scheduler) {
+
+        checkState();
+
+        this.mainScheduler = scheduler;
+
+        return this;
+    }
+
+    @NonNull
+    @Override
+    public RequirementBuilder<T> backgroundScheduler(@NonNull Scheduler scheduler) {
+
+        checkState();
+
+        this.backgroundScheduler = scheduler;
+
+        return this;
+    }
+
+    @NonNull
+    @Override
+    public RequirementBuilder<T> trace(@NonNull TraceRecorder traceRecorder) {
+
+        checkState();
+
+        this.traceRecorder = traceRecorder;
+
+        return this;
+    }
+
+    @NonNull
+    @Override
+    public RequirementBuilder<T> metrics(@NonNull RequirementMetrics metrics) {
+
+        checkState();
+
+        this.metrics = metrics;
+
+        return this;
+    }
+
+    @NonNull
+    @Override
+    public RequirementBuilder<T> timeSlicing(long budgetMillis) {
+
+        checkState();
+
+        if (budgetMillis < 1L) {
+            throw new IllegalArgumentException("Time budget must be positive: " + budgetMillis);
+        }
+
+        this.sliceBudgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+
+        return this;
+    }
+
     @NonNull
     @Override
     public Requirement build() {
@@ -82,15 +170,30 @@ class RequirementBuilderImpl<T> extends RequirementBuilder<T> {
         isBuilt = true;
 
         try {
-            return new RequirementImpl(
+            final RequirementImpl requirement = new RequirementImpl(
                     dispatcher,
                     source,
-                    Collections.unmodifiableList((List<? extends RequirementCase>) requirementCases)
+                    ChainOptimizer.optimize((List<? extends RequirementCase>) requirementCases),
+                    statistics,
+                    sharedState,
+                    mainScheduler != null ? mainScheduler : LooperScheduler.mainThread(),
+                    backgroundScheduler,
+                    traceRecorder,
+                    metrics,
+                    sliceBudgetNanos
             );
+            requirement.bind();
+            return requirement;
         } finally {
             dispatcher = null;
             source = null;
             requirementCases = null;
+            statistics = null;
+            sharedState = null;
+            mainScheduler = null;
+            backgroundScheduler = null;
+            traceRecorder = null;
+            metrics = null;
         }
     }
 
@@ -9,8 +9,19 @@ import android.support.annotation.IntRange;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
- * Represents stateless requirement case.
+ * Represents a requirement case: a check ({@link #meetsRequirement()}) and a resolution
+ * ({@link #startResolution()}) of a single requirement.
+ * <p>
+ * Since 1.2.0 a case holds state that is managed by requirements it is added to (attachment
+ * during resolution and observers of {@link #isObservable()} cases). Callbacks are
+ * invoked on the main thread, except {@link #meetsRequirement()}, which is also called on a
+ * background thread by retries ({@link #retryPolicy()}) and on the calling thread by
+ * {@link Requirement#isValid()} and {@link Requirement#unsatisfiedCases()} if they are called
+ * off the main thread.
  * <p>
  * Library provides a subclass for easier interaction with Android Permissions, see: {@link PermissionCase}
  * <p>
@@ -36,19 +47,241 @@ public abstract class RequirementCase<T> {
      */
     public abstract void startResolution();
 
+    /**
+     * Override this method if this case does not depend on any other case in a chain, so it can be
+     * checked in any order. When adaptive ordering is enabled only such cases can be reordered,
+     * all other cases keep their position in a chain.
+     *
+     * @return a boolean indicating if this case can be reordered, default false
+     * @see RequirementBuilder#adaptiveOrdering(CaseStatistics)
+     * @since 1.2.0
+     */
+    public boolean isOrderIndependent() {
+        return false;
+    }
+
+    /**
+     * Identity key of this case. If a chain contains multiple cases with equal identity keys, only
+     * the first one is kept when a {@link Requirement} is built. Default implementation returns null,
+     * so only the very same instance added twice is considered a duplicate.
+     *
+     * @return identity key of this case or null
+     * @see #covers(RequirementCase)
+     * @since 1.2.0
+     */
+    @Nullable
+    public String identityKey() {
+        return null;
+    }
+
+    /**
+     * Override this method if satisfying this case implies that supplied case is satisfied as well.
+     * If a chain contains a case that is covered by another case added before it, the covered case
+     * is dropped when a {@link Requirement} is built.
+     *
+     * @param other {@link RequirementCase} that follows this case in a chain
+     * @return a boolean indicating if supplied case is covered by this one, default false
+     * @see #identityKey()
+     * @since 1.2.0
+     */
+    public boolean covers(@NonNull RequirementCase<?> other) {
+        return false;
+    }
+
+    /**
+     * Override this method if satisfied state of this case is the same for all processes of an
+     * application. If a {@link Requirement} is built with {@link SharedState}, satisfied state of this
+     * case is shared with other processes and is trusted for returned period of time. Has effect
+     * only if this case has {@link #identityKey()}.
+     *
+     * @return period of time (in milliseconds) during which shared satisfied state can be used
+     * instead of a check, 0 (default) to never share state of this case
+     * @see RequirementBuilder#sharedState(SharedState)
+     * @since 1.2.0
+     */
+    public long sharedStateValidityMillis() {
+        return 0L;
+    }
+
+    /**
+     * Override this method if this case can fail for a short period of time (for example network
+     * connection during Wi-Fi handover). If this case is not satisfied it will be checked again
+     * according to returned policy before resolution is started.
+     * <p>
+     * Please note that retries call {@link #meetsRequirement()} of this case on a background thread
+     * (see {@link RequirementBuilder#backgroundScheduler(Scheduler)}), so if this method returns
+     * a policy, {@link #meetsRequirement()} must be thread-safe and must not touch views.
+     * {@link #activity()}, {@link #target()} and permission helpers can be used during a retry.
+     *
+     * @return {@link RetryPolicy} or null (default) if this case must not be retried
+     * @see RetryPolicy
+     * @since 1.2.0
+     */
+    @Nullable
+    public RetryPolicy retryPolicy() {
+        return null;
+    }
+
+    /**
+     * Override this method and return true if this case calls {@link #notifyChanged()} every time
+     * its satisfied state might have been lost. Satisfied state of such cases is cached by a
+     * {@link Requirement} and is not checked again until {@link #notifyChanged()} is called,
+     * an activity or permission result is received or {@link Requirement#invalidate()} is called.
+     *
+     * @return a boolean indicating if satisfied state of this case can be cached, default false
+     * @see #notifyChanged()
+     * @since 1.2.0
+     */
+    public boolean isObservable() {
+        return false;
+    }
+
+    /**
+     * Notifies requirements that contain this case that its state might have changed, so it must be
+     * checked again. Has effect only if {@link #isObservable()} returns true. Can be called even
+     * if this case is not attached.
+     *
+     * @see #isObservable()
+     * @since 1.2.0
+     */
+    protected void notifyChanged() {
+        final List<Observer> observers = this.observers;
+        if (observers != null) {
+            for (Observer observer : observers) {
+                observer.onRequirementCaseChanged(this);
+            }
+        }
+    }
 
     private EventDispatcher<T> dispatcher;
-    private Callback callback;
+
+    // volatile since 1.2.0, a result can be delivered from another thread whilst this case is detached
+    private volatile Callback callback;
+
+    // @since 1.2.0, the last request code sent whilst attached, -1 if none (for Requirement#dump)
+    private int pendingRequestCode = -1;
+
+    // @since 1.2.0, copy-on-write, created only for observable cases. Volatile, as notifyChanged
+    // can be called from any thread (for example a system callback thread)
+    private volatile List<Observer> observers;
+
+    // @since 1.2.0, dispatcher of a read-only check in progress on current thread
+    private static final ThreadLocal<EventDispatcher> CHECK_DISPATCHER = new ThreadLocal<>();
+
+    // @since 1.2.0, grant state of permissions of a validation pass in progress on current thread
+    private static final ThreadLocal<PermissionSnapshot> PERMISSION_SNAPSHOT = new ThreadLocal<>();
+
+    /**
+     * Starts a validation pass on current thread: until {@link #endPermissionSnapshot()} is called
+     * {@link #checkSelfPermission(String)} of all cases reads grant state of permissions once.
+     * Nested passes share the outer one.
+     *
+     * @return true if a pass has been started (and must be ended by the caller)
+     * @since 1.2.0
+     */
+    static boolean beginPermissionSnapshot(@NonNull EventDispatcher dispatcher) {
+        if (PERMISSION_SNAPSHOT.get() != null) {
+            return false;
+        }
+        PERMISSION_SNAPSHOT.set(new PermissionSnapshot(dispatcher));
+        return true;
+    }
+
+    // @since 1.2.0
+    static void endPermissionSnapshot() {
+        PERMISSION_SNAPSHOT.remove();
+    }
 
 
     public final void attach(@NonNull EventDispatcher<T> dispatcher, @NonNull Callback callback) {
         this.dispatcher = dispatcher;
         this.callback = callback;
+        this.pendingRequestCode = -1;
     }
 
     public final void detach() {
         this.dispatcher = null;
         this.callback = null;
+        this.pendingRequestCode = -1;
+        onDetach();
+    }
+
+    /**
+     * Called when this case is detached (its resolution is finished or cancelled). Override to
+     * release resources of a resolution in progress, for example to detach nested cases.
+     *
+     * @since 1.2.0
+     */
+    protected void onDetach() {
+
+    }
+
+    /**
+     * Called on the main thread when a {@link Requirement} that contains this case is built and
+     * no other requirement observes it (only for {@link #isObservable()} cases). Override to start
+     * observing the source of {@link #notifyChanged()} calls instead of doing it in a constructor.
+     * Can be called again if all requirements that contained this case were released.
+     *
+     * @since 1.2.0
+     */
+    protected void onObserved() {
+
+    }
+
+    /**
+     * Read-only check of this case that does not mutate its attachment state, so it can be called
+     * from any thread and whilst this case is being resolved. During this call {@link #activity()},
+     * {@link #target()} and permission helpers use supplied dispatcher.
+     *
+     * @since 1.2.0
+     */
+    final boolean check(@NonNull EventDispatcher<T> dispatcher) {
+        final EventDispatcher previous = CHECK_DISPATCHER.get();
+        CHECK_DISPATCHER.set(dispatcher);
+        try {
+            return meetsRequirement();
+        } finally {
+            if (previous == null) {
+                CHECK_DISPATCHER.remove();
+            } else {
+                CHECK_DISPATCHER.set(previous);
+            }
+        }
+    }
+
+    // @since 1.2.0
+    final int pendingRequestCode() {
+        return pendingRequestCode;
+    }
+
+    // @since 1.2.0
+    final boolean isAttached() {
+        return callback != null;
+    }
+
+    // @since 1.2.0, main thread only (readers can be on any thread)
+    final void addObserver(@NonNull Observer observer) {
+        final List<Observer> observers = this.observers;
+        final List<Observer> list = observers != null
+                ? new ArrayList<>(observers)
+                : new ArrayList<Observer>(1);
+        list.add(observer);
+        this.observers = list;
+        if (observers == null) {
+            onObserved();
+        }
+    }
+
+    // @since 1.2.0, main thread only
+    final void removeObserver(@NonNull Observer observer) {
+        final List<Observer> observers = this.observers;
+        if (observers != null) {
+            final List<Observer> list = new ArrayList<>(observers);
+            list.remove(observer);
+            this.observers = list.isEmpty()
+                    ? null
+                    : list;
+        }
     }
 
     /**
@@ -71,11 +304,14 @@ public abstract class RequirementCase<T> {
     }
 
     /**
+     * Changed in 1.2.0: obtained from {@link EventDispatcher#context()}, so it is available
+     * with a check-only dispatcher
+     *
      * @return application Context (only if this case is attached)
      */
     @NonNull
     protected Context appContext() {
-        return activity().getApplicationContext();
+        return dispatcher().context().getApplicationContext();
     }
 
     /**
@@ -96,15 +332,14 @@ public abstract class RequirementCase<T> {
         return dispatcher().target();
     }
 
-    @NonNull
-    private Callback callback() {
-        Preconditions.checkNonNull(callback, "This requirement case is not attached: " + getClass().getSimpleName());
-        return callback;
-    }
-
     // @since 1.1.0
     @NonNull
-    private EventDispatcher<T> dispatcher() {
+    EventDispatcher<T> dispatcher() {
+        final EventDispatcher checking = CHECK_DISPATCHER.get();
+        if (checking != null) {
+            //noinspection unchecked
+            return checking;
+        }
         Preconditions.checkNonNull(dispatcher, "This requirement case is not attached: " + getClass().getSimpleName());
         return dispatcher;
     }
@@ -121,6 +356,10 @@ public abstract class RequirementCase<T> {
 
     /**
      * Call this method after resolution has finished (in whatever case: success or cancellation)
+     * <p>
+     * Since 1.2.0 a result that is delivered after this case has been detached (its requirement was
+     * cancelled whilst resolution was in progress, for example a dialog is dismissed after cancellation)
+     * is ignored
      *
      * @param result  true for success, false for failure
      * @param payload {@link Payload} to identify _error_ state. Please note that it will be ignored in case of success result
@@ -128,20 +367,30 @@ public abstract class RequirementCase<T> {
      */
     @SuppressWarnings("SameParameterValue")
     protected void deliverResult(boolean result, @Nullable Payload payload) {
-        callback().onRequirementCaseResult(result, payload);
+        // read once, detach can happen whilst this method is executing
+        final Callback callback = this.callback;
+        if (callback != null) {
+            callback.onRequirementCaseResult(result, payload);
+        }
     }
 
     protected void startActivityForResult(@NonNull Intent intent, @IntRange(from = 0, to = RequestCode.MAX) int requestCode) {
         dispatcher().startActivityForResult(intent, requestCode);
+        pendingRequestCode = requestCode;
     }
 
     @TargetApi(Build.VERSION_CODES.M)
     protected void requestPermission(@NonNull String permission, @IntRange(from = 0, to = RequestCode.MAX) int requestCode) {
         dispatcher().requestPermission(permission, requestCode);
+        pendingRequestCode = requestCode;
     }
 
     @TargetApi(Build.VERSION_CODES.M)
     protected boolean checkSelfPermission(@NonNull String permission) {
+        final PermissionSnapshot snapshot = PERMISSION_SNAPSHOT.get();
+        if (snapshot != null) {
+            return snapshot.isGranted(permission);
+        }
         return dispatcher().checkSelfPermission(permission);
     }
 
@@ -155,4 +404,9 @@ public abstract class RequirementCase<T> {
         // @since 1.0.1
         void onRequirementCaseResult(boolean result, @Nullable Payload payload);
     }
+
+    // @since 1.2.0
+    interface Observer {
+        void onRequirementCaseChanged(@NonNull RequirementCase requirementCase);
+    }
 }
@@ -1,80 +1,425 @@
 package ru.noties.requirements;
 
 import android.app.Activity;
+import android.app.Application;
 import android.content.Intent;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
-import java.util.ArrayDeque;
+import java.io.PrintWriter;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.Deque;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 class RequirementImpl extends Requirement
-        implements EventSource.Listener, RequirementCase.Callback {
+        implements EventSource.Listener, RequirementCase.Observer {
 
-    private EventDispatcher eventDispatcher;
+    // jitter of RetryPolicy delays
+    private static final Random RANDOM = new Random();
 
-    private Activity activity;
+    // volatile fields can be read from any thread by isValid (all other methods are main-thread only)
+    private volatile EventDispatcher eventDispatcher;
+
+    // weak, so a long-lived holder of this requirement does not keep the activity alive
+    private WeakReference<Activity> activity;
 
     private EventSource eventSource;
 
-    private List<RequirementCase> requirementCases;
+    // immutable plan, compiled by RequirementBuilder
+    private volatile RequirementCase[] requirementCases;
+
+    // cases of current validation (in the order they are checked) and position of current case
+    private RequirementCase[] chain;
+    private int position;
+
+    // incremented when a validation ends
+    private int generation;
 
-    private final Deque<RequirementCase> deque;
+    // for dump
+    private final TransitionLog transitions = new TransitionLog();
+    private long stepStartMillis;
+
+    // bit is set if case (by its index in requirementCases) is observable and known to be satisfied
+    private final AtomicBits satisfied;
 
     private final ListenerSource listenerSource;
 
     private EventSource.Subscription subscription;
 
+    private final CaseStatistics statistics;
+
+    private final SharedState sharedState;
+
+    // all engine work is executed on the thread of this scheduler
+    private final Scheduler mainScheduler;
+
+    // null to use Scheduler.background(), which is obtained only when a case is retried
+    private final Scheduler backgroundScheduler;
+
+    private final TraceRecorder traceRecorder;
+
+    // id of this requirement in events of traceRecorder
+    private final int traceId;
+
+    private final RequirementMetrics metrics;
+
+    // time slicing of a chain, 0 if disabled
+    private final long sliceBudgetNanos;
+    private Scheduler sliceScheduler;
+    private long sliceStartNanos;
+
+    // continuation of a chain that has used up its time slice
+    private Scheduler.Task continuation;
+
+    // System.nanoTime when resolution of current case has started
+    private long resolutionStartNanos;
+
+    // cases created by asCase (weak, so parent chains do not keep them registered)
+    private final List<WeakReference<SubRequirementCase>> subRequirementCases =
+            new CopyOnWriteArrayList<>();
+
+    // result of the last warm up check
+    private volatile Snapshot snapshot;
+
+    // current session was started with a valid warm up snapshot, so all cases are satisfied
+    // without checks (cleared with the snapshot)
+    private volatile boolean isWarmSession;
+
+    private WarmUp warmUp;
+
+    // pending re-check of current case (if it has a RetryPolicy)
+    private Retry retry;
+
     RequirementImpl(
             @NonNull EventDispatcher eventDispatcher,
             @NonNull EventSource eventSource,
-            @NonNull List<RequirementCase> requirementCases
+            @NonNull RequirementCase[] requirementCases,
+            @Nullable CaseStatistics statistics,
+            @Nullable SharedState sharedState,
+            @NonNull Scheduler mainScheduler,
+            @Nullable Scheduler backgroundScheduler,
+            @Nullable TraceRecorder traceRecorder,
+            @Nullable RequirementMetrics metrics,
+            long sliceBudgetNanos
     ) {
         this.eventDispatcher = eventDispatcher;
         this.eventSource = eventSource;
         this.requirementCases = requirementCases;
-        this.deque = new ArrayDeque<>(requirementCases.size() + 1);
+        this.statistics = statistics;
+        this.sharedState = sharedState;
+        this.mainScheduler = mainScheduler;
+        this.backgroundScheduler = backgroundScheduler;
+        this.traceRecorder = traceRecorder;
+        this.traceId = traceRecorder != null
+                ? traceRecorder.register()
+                : 0;
+        this.metrics = metrics;
+        this.sliceBudgetNanos = sliceBudgetNanos;
+        this.satisfied = new AtomicBits(requirementCases.length);
+
         this.listenerSource = new ListenerSource();
+    }
+
+    // @since 1.2.0, registers this requirement (and observers of its cases) and binds it to lifecycle
+    // of its activity (everything is released when the activity is destroyed). Requirements
+    // of TraceReplayer are not bound
+    void bind() {
+
+        final EventDispatcher eventDispatcher = this.eventDispatcher;
+
+        for (RequirementCase requirementCase : requirementCases) {
+            if (requirementCase.isObservable()) {
+                requirementCase.addObserver(this);
+            }
+            if (requirementCase instanceof PermissionCase) {
+                PermissionStore.instance().register((PermissionCase) requirementCase);
+            }
+        }
+
+        RequirementRegistry.register(this);
+
+        if (eventDispatcher.isCheckOnly()) {
+            // no activity, so nothing to release and no warm up
+            this.activity = null;
+            return;
+        }
 
         // register listener to be notified about activity destroyed event
         // so we can release everything
-        this.activity = eventDispatcher.activity();
-        this.activity.getApplication().registerActivityLifecycleCallbacks(new ActivityDestroyedListener());
+        final Application application = eventDispatcher.application();
+        this.activity = new WeakReference<>(eventDispatcher.activity());
+        application.registerActivityLifecycleCallbacks(new ActivityDestroyedListener(application));
     }
 
     @Override
     public void validate(@NonNull Listener listener) {
+        validate(listener, null);
+    }
+
+    @Override
+    public void validate(@NonNull Listener listener, @Nullable Executor executor) {
 
-        listenerSource.add(listener);
+        listenerSource.add(listener, executor);
 
         // if we have subscription it means that we are in progress -> just add supplied listener
         // to our list of listeners
 
         if (subscription == null) {
 
-            deque.clear();
-            deque.addAll(requirementCases);
+            // warm up check found that all cases are satisfied, no need to check again (the chain
+            // is still walked, so progress listeners receive events of each case)
+            final Snapshot snapshot = this.snapshot;
+            isWarmSession = snapshot != null && snapshot.isValid();
+
+            chain = orderedCases(requirementCases);
+            position = 0;
 
             subscription = eventSource.subscribe(this);
 
+            trace(Trace.SESSION_STARTED, requirementCases.length, 0L);
+
             validate();
         }
     }
 
+    /**
+     * Read-only check that does not attach cases, so it can be called from any thread and whilst
+     * resolution is in progress
+     */
     @Override
     public boolean isValid() {
-        boolean result = true;
+        final Snapshot snapshot = this.snapshot;
+        if (snapshot != null && snapshot.isFresh()) {
+            return snapshot.result;
+        }
+        return check();
+    }
+
+    @NonNull
+    @Override
+    public List<RequirementCase<?>> unsatisfiedCases() {
+
+        // both are cleared when the activity is destroyed, which can happen whilst this is
+        // called from another thread
+        final RequirementCase[] requirementCases = this.requirementCases;
+        final EventDispatcher eventDispatcher = this.eventDispatcher;
+
+        checkNotDisposed(requirementCases, eventDispatcher);
+
+        final List<RequirementCase<?>> list = new ArrayList<>(0);
+
+        final boolean isSnapshotOwner = RequirementCase.beginPermissionSnapshot(eventDispatcher);
+        try {
+            for (RequirementCase requirementCase : orderedCases(requirementCases)) {
+                final int index = indexOf(requirementCases, requirementCase);
+                if (satisfied.get(index)) {
+                    continue;
+                }
+                if (meetsRequirement(eventDispatcher, requirementCase)) {
+                    markSatisfied(requirementCases, index);
+                } else {
+                    list.add(requirementCase);
+                }
+            }
+        } finally {
+            if (isSnapshotOwner) {
+                RequirementCase.endPermissionSnapshot();
+            }
+        }
+
+        return list;
+    }
+
+    @Override
+    public void dump(@NonNull String prefix, @NonNull PrintWriter writer) {
+
+        final RequirementCase[] requirementCases = this.requirementCases;
+
+        writer.print(prefix);
+        writer.print("Requirement@");
+        writer.print(Integer.toHexString(System.identityHashCode(this)));
+        if (requirementCases == null) {
+            writer.println(" (disposed)");
+            return;
+        }
+        writer.println(subscription != null ? " (in progress)" : " (idle)");
+
+        final String nested = prefix + "  ";
+
+        int cached = 0;
+        for (int i = 0; i < requirementCases.length; i++) {
+            if (satisfied.get(i)) {
+                cached += 1;
+            }
+        }
+        writer.print(nested);
+        writer.print("cases: ");
+        writer.print(requirementCases.length);
+        writer.print(", satisfied (cached): ");
+        writer.println(cached);
+
+        final RequirementCase current = currentCase();
+        if (current != null) {
+            writer.print(nested);
+            writer.print("current: [");
+            writer.print(position + 1);
+            writer.print('/');
+            writer.print(chain.length);
+            writer.print("] ");
+            writer.print(current.getClass().getName());
+            final int requestCode = current.pendingRequestCode();
+            if (requestCode != -1) {
+                writer.print(", request code: ");
+                writer.print(requestCode);
+            }
+            if (retry != null) {
+                writer.print(", retrying");
+            }
+            if (continuation != null) {
+                writer.print(", time slice used up");
+            }
+            writer.print(", for ");
+            writer.print(SystemClock.uptimeMillis() - stepStartMillis);
+            writer.println("ms");
+        }
+
+        writer.print(nested);
+        writer.print("listeners: ");
+        writer.println(listenerSource.size());
+
+        writer.print(nested);
+        writer.println("transitions:");
+        transitions.dump(nested + "  ", writer);
+    }
+
+    @Override
+    public void invalidate() {
+        satisfied.clear();
+        clearSnapshot();
+        notifySubRequirementCases();
+    }
+
+    @NonNull
+    @Override
+    public RequirementCase<Object> asCase() {
+        final SubRequirementCase requirementCase = new SubRequirementCase(this);
+        for (WeakReference<SubRequirementCase> reference : subRequirementCases) {
+            if (reference.get() == null) {
+                subRequirementCases.remove(reference);
+            }
+        }
+        subRequirementCases.add(new WeakReference<>(requirementCase));
+        return requirementCase;
+    }
+
+    // all cases are observable, so this requirement knows when its state changes
+    boolean isObservable() {
+        final RequirementCase[] requirementCases = this.requirementCases;
+        if (requirementCases == null) {
+            return false;
+        }
+        for (RequirementCase requirementCase : requirementCases) {
+            if (!requirementCase.isObservable()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // supplied case is a part of this requirement (or is covered by it)
+    boolean contains(@NonNull RequirementCase<?> other) {
+        final RequirementCase[] requirementCases = this.requirementCases;
+        if (requirementCases == null) {
+            return false;
+        }
+        final String key = other.identityKey();
         for (RequirementCase requirementCase : requirementCases) {
             //noinspection unchecked
-            requirementCase.attach(eventDispatcher, this);
-            result = requirementCase.meetsRequirement();
-            requirementCase.detach();
-            if (!result) {
-                break;
+            if (requirementCase == other
+                    || (key != null && key.equals(requirementCase.identityKey()))
+                    || requirementCase.covers(other)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void notifySubRequirementCases() {
+        for (WeakReference<SubRequirementCase> reference : subRequirementCases) {
+            final SubRequirementCase requirementCase = reference.get();
+            if (requirementCase != null) {
+                requirementCase.onRequirementChanged();
             }
         }
+    }
+
+    @Override
+    public void warmUp() {
+        warmUp(WARM_UP_VALIDITY_MILLIS);
+    }
+
+    @Override
+    public void warmUp(long validityMillis) {
+        // idle handler is added to the queue of calling thread
+        Preconditions.checkState(
+                !isMainThreadScheduler() || Looper.myLooper() == Looper.getMainLooper(),
+                "Requirement#warmUp must be called from the main thread");
+        if (warmUp == null && activity != null) {
+            warmUp = new WarmUp(validityMillis);
+            warmUp.schedule();
+        }
+    }
+
+    private static void checkNotDisposed(
+            @Nullable RequirementCase[] requirementCases,
+            @Nullable EventDispatcher eventDispatcher) {
+        if (requirementCases == null || eventDispatcher == null) {
+            throw new IllegalStateException("This Requirement has been disposed " +
+                    "(its Activity has been destroyed)");
+        }
+    }
+
+    private boolean check() {
+
+        // both are cleared when the activity is destroyed, which can happen whilst this is
+        // called from another thread
+        final RequirementCase[] requirementCases = this.requirementCases;
+        final EventDispatcher eventDispatcher = this.eventDispatcher;
+
+        checkNotDisposed(requirementCases, eventDispatcher);
+
+        // all cases are observable and known to be satisfied
+        if (satisfied.isFull()) {
+            return true;
+        }
+
+        boolean result = true;
+        final boolean isSnapshotOwner = RequirementCase.beginPermissionSnapshot(eventDispatcher);
+        try {
+            for (RequirementCase requirementCase : orderedCases(requirementCases)) {
+                final int index = indexOf(requirementCases, requirementCase);
+                if (satisfied.get(index)) {
+                    continue;
+                }
+                result = meetsRequirement(eventDispatcher, requirementCase);
+                if (!result) {
+                    break;
+                }
+                markSatisfied(requirementCases, index);
+            }
+        } finally {
+            if (isSnapshotOwner) {
+                RequirementCase.endPermissionSnapshot();
+            }
+        }
+        // statistics are persisted when validation ends or this requirement is disposed,
+        // not on every check (isValid can be called frequently)
         return result;
     }
 
@@ -86,14 +431,22 @@ class RequirementImpl extends Requirement
     @Override
     public void cancel(@Nullable Payload payload) {
 
+        // nothing to cancel (and no listeners to notify)
+        if (subscription == null) {
+            return;
+        }
+
+        trace(Trace.CANCELLED, 0L, 0L);
+
         final RequirementCase current = currentCase();
         if (current != null) {
             current.detach();
+            if (metrics != null) {
+                metrics.cancelled(metricsKey(current));
+            }
         }
 
-        listenerSource.onRequirementFailure(payload);
-
-        end(false);
+        end(false, payload);
     }
 
     @Override
@@ -103,87 +456,380 @@ class RequirementImpl extends Requirement
 
     @Nullable
     private RequirementCase currentCase() {
-        return deque.peek();
+        return chain != null && position < chain.length
+                ? chain[position]
+                : null;
     }
 
     @Override
     public boolean onActivityResult(int requestCode, int resultCode, Intent data) {
+        if (traceRecorder != null) {
+            traceRecorder.recordActivityResult(traceId, requestCode, resultCode);
+        }
+        invalidate();
         final RequirementCase requirementCase = currentCase();
         return requirementCase != null && requirementCase.onActivityResult(requestCode, resultCode, data);
     }
 
     @Override
     public boolean onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
+        if (traceRecorder != null) {
+            traceRecorder.recordPermissionsResult(traceId, requestCode, grantResults);
+        }
+        invalidate();
         final RequirementCase requirementCase = currentCase();
         return requirementCase != null && requirementCase.onRequestPermissionsResult(requestCode, permissions, grantResults);
     }
 
+    // checks remaining cases of the chain in a single pass (permissions are read once)
     private void validate() {
+        if (sliceBudgetNanos > 0L) {
+            sliceStartNanos = System.nanoTime();
+        }
+        final boolean isSnapshotOwner = RequirementCase.beginPermissionSnapshot(eventDispatcher);
+        try {
+            validateChain();
+        } finally {
+            if (isSnapshotOwner) {
+                RequirementCase.endPermissionSnapshot();
+            }
+        }
+    }
+
+    private void validateChain() {
         final RequirementCase current = currentCase();
         if (current != null) {
-            //noinspection unchecked
-            current.attach(eventDispatcher, this);
-            if (!current.meetsRequirement()) {
-                current.startResolution();
-            } else {
-                current.detach();
-                deque.pop();
-                if (currentCase() != null) {
-                    validate();
+            if (sliceBudgetNanos > 0L
+                    && System.nanoTime() - sliceStartNanos >= sliceBudgetNanos) {
+                scheduleContinuation();
+                return;
+            }
+            final int index = indexOf(requirementCases, current);
+            trace(Trace.CASE_ENTERED, index, 0L);
+            stepStartMillis = SystemClock.uptimeMillis();
+            if (metrics != null) {
+                metrics.entered(metricsKey(current));
+            }
+            if (!progress(ListenerSource.ENTERED, current, chain.length - position)) {
+                return;
+            }
+            if (isWarmSession || satisfied.get(index)) {
+                if (metrics != null) {
+                    metrics.passed(metricsKey(current));
+                }
+                if (!progress(ListenerSource.SATISFIED, current, chain.length - position - 1)) {
+                    return;
+                }
+                position += 1;
+                validateChain();
+                return;
+            }
+            if (!meetsRequirement(Trace.CHECK, index, eventDispatcher, current)) {
+                final RetryPolicy retryPolicy = current.retryPolicy();
+                if (retryPolicy != null) {
+                    retry = new Retry(eventDispatcher, current, index, retryPolicy);
+                    retry.schedule();
                 } else {
-                    end(true);
+                    startResolution(current);
+                }
+            } else {
+                markSatisfied(requirementCases, index);
+                if (!progress(ListenerSource.SATISFIED, current, chain.length - position - 1)) {
+                    return;
                 }
+                position += 1;
+                validateChain();
+            }
+        } else {
+            end(true, null);
+        }
+    }
+
+    // notifies progress listeners, returns false if a listener has ended this validation (cancel)
+    private boolean progress(int type, @NonNull RequirementCase requirementCase, int remaining) {
+        final int generation = this.generation;
+        listenerSource.progress(type, requirementCase, remaining);
+        return generation == this.generation;
+    }
+
+    // time slice is used up, continue the chain in a following frame
+    private void scheduleContinuation() {
+        if (sliceScheduler == null) {
+            // frames of the main thread, unless engine work is routed through a custom main scheduler
+            sliceScheduler = isMainThreadScheduler() && Looper.myLooper() != null
+                    ? new FrameScheduler()
+                    : mainScheduler;
+        }
+        continuation = sliceScheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                continuation = null;
+                validate();
             }
+        }, 0L);
+    }
+
+    private boolean isMainThreadScheduler() {
+        return mainScheduler == LooperScheduler.mainThread();
+    }
+
+    @NonNull
+    private Scheduler backgroundScheduler() {
+        return backgroundScheduler != null
+                ? backgroundScheduler
+                : Scheduler.background();
+    }
+
+    private void cancelContinuation() {
+        if (continuation != null) {
+            continuation.cancel();
+            continuation = null;
+        }
+    }
+
+    private void startResolution(@NonNull RequirementCase current) {
+        if (eventDispatcher.isCheckOnly()) {
+            // cannot be resolved without UI
+            end(false, null);
+            return;
+        }
+        trace(Trace.RESOLUTION_STARTED, indexOf(requirementCases, current), 0L);
+        resolutionStartNanos = System.nanoTime();
+        //noinspection unchecked
+        current.attach(eventDispatcher, new Resolution(current, generation));
+        current.startResolution();
+    }
+
+    @NonNull
+    private RequirementCase[] orderedCases(@NonNull RequirementCase[] requirementCases) {
+        return statistics != null
+                ? statistics.order(requirementCases)
+                : requirementCases;
+    }
+
+    // meetsRequirement of a chain that is recorded with supplied trace type (CHECK or RETRY_CHECK)
+    // and metrics
+    private boolean meetsRequirement(
+            int traceType,
+            int index,
+            @NonNull EventDispatcher eventDispatcher,
+            @NonNull RequirementCase requirementCase
+    ) {
+        final TraceRecorder traceRecorder = this.traceRecorder;
+        final RequirementMetrics metrics = this.metrics;
+        if (traceRecorder == null && metrics == null) {
+            return meetsRequirement(eventDispatcher, requirementCase);
+        }
+        final long start = System.nanoTime();
+        final boolean result = meetsRequirement(eventDispatcher, requirementCase);
+        final long duration = System.nanoTime() - start;
+        if (traceRecorder != null) {
+            traceRecorder.recordCheck(traceId, traceType, index, result, duration);
+        }
+        if (metrics != null) {
+            metrics.checked(metricsKey(requirementCase), duration, result);
+        }
+        return result;
+    }
+
+    @NonNull
+    private static String metricsKey(@NonNull RequirementCase requirementCase) {
+        return requirementCase.getClass().getName();
+    }
+
+    private boolean meetsRequirement(@NonNull EventDispatcher eventDispatcher, @NonNull RequirementCase requirementCase) {
+
+        final String sharedKey = sharedKey(requirementCase);
+        if (sharedKey != null
+                && sharedState.isSatisfied(sharedKey, requirementCase.sharedStateValidityMillis())) {
+            return true;
+        }
+
+        final boolean result;
+
+        if (statistics == null) {
+            //noinspection unchecked
+            result = requirementCase.check(eventDispatcher);
         } else {
-            end(true);
+            final long start = System.nanoTime();
+            //noinspection unchecked
+            result = requirementCase.check(eventDispatcher);
+            statistics.record(requirementCase, System.nanoTime() - start, result);
+        }
+
+        if (sharedKey != null) {
+            sharedState.setSatisfied(sharedKey, result);
+        }
+
+        return result;
+    }
+
+    @Nullable
+    private String sharedKey(@NonNull RequirementCase requirementCase) {
+        return sharedState != null && requirementCase.sharedStateValidityMillis() > 0L
+                ? requirementCase.identityKey()
+                : null;
+    }
+
+    private static int indexOf(@NonNull RequirementCase[] requirementCases, @NonNull RequirementCase requirementCase) {
+        for (int i = 0, length = requirementCases.length; i < length; i++) {
+            if (requirementCases[i] == requirementCase) {
+                return i;
+            }
         }
+        throw new IllegalStateException("Unexpected state inside Requirement. RequirementCase is not " +
+                "a part of this Requirement: " + requirementCase);
     }
 
-    private void end(boolean success) {
+    private void markSatisfied(@NonNull RequirementCase[] requirementCases, int index) {
+        if (requirementCases[index].isObservable()) {
+            satisfied.set(index);
+        }
+    }
 
-        deque.clear();
+    @Override
+    public void onRequirementCaseChanged(@NonNull RequirementCase requirementCase) {
+        final RequirementCase[] requirementCases = this.requirementCases;
+        if (requirementCases != null) {
+            satisfied.clear(indexOf(requirementCases, requirementCase));
+            clearSnapshot();
+            notifySubRequirementCases();
+        }
+    }
+
+    private void trace(int type, long arg0, long arg1) {
+        transitions.add(type, arg0, arg1);
+        if (traceRecorder != null) {
+            traceRecorder.record(traceId, type, arg0, arg1);
+        }
+    }
+
+    private void clearSnapshot() {
+        snapshot = null;
+        isWarmSession = false;
+    }
+
+    private void cancelRetry() {
+        if (retry != null) {
+            retry.cancel();
+            retry = null;
+        }
+    }
+
+    private void end(boolean success, @Nullable Payload payload) {
+
+        chain = null;
+        position = 0;
+        generation += 1;
+
+        cancelRetry();
+        cancelContinuation();
+
+        // resolution might have changed the state of cases
+        clearSnapshot();
+
+        if (statistics != null) {
+            statistics.persist();
+        }
 
         if (subscription != null) {
             subscription.unsubscribe();
             subscription = null;
         }
 
-        if (success) {
-            listenerSource.onRequirementSuccess();
-        }
+        trace(Trace.RESULT_DELIVERED, success ? 1L : 0L, 0L);
 
-        listenerSource.clear();
+        // the chain is released at this point, so listeners can start new validation
+        listenerSource.deliver(success, payload);
     }
 
-    @Override
-    public void onRequirementCaseResult(boolean result, @Nullable Payload payload) {
+    // result of current case, on the main scheduler thread
+    private void onRequirementCaseResult(@NonNull RequirementCase current, boolean result, @Nullable Payload payload) {
 
-        final RequirementCase current = currentCase();
+        current.detach();
 
-        if (current != null) {
+        final int index = indexOf(requirementCases, current);
 
-            current.detach();
+        trace(Trace.CASE_RESULT, index, result ? 1L : 0L);
 
-            if (result) {
-                deque.pop();
-                validate();
+        if (metrics != null) {
+            metrics.resolved(metricsKey(current), System.nanoTime() - resolutionStartNanos, result);
+        }
+
+        if (result) {
+            markSatisfied(requirementCases, index);
+            final String sharedKey = sharedKey(current);
+            if (sharedKey != null) {
+                sharedState.setSatisfied(sharedKey, true);
+            }
+            if (!progress(ListenerSource.RESOLVED, current, chain.length - position - 1)) {
+                return;
+            }
+            position += 1;
+            validate();
+        } else {
+            end(false, payload);
+        }
+    }
+
+    /**
+     * Callback of a case which resolution has been started. A result that is delivered from another
+     * thread is executed with main scheduler. A result is ignored if the case is no longer resolved
+     * by this requirement (for example validation has been cancelled whilst the result was posted).
+     */
+    private class Resolution implements RequirementCase.Callback {
+
+        private final RequirementCase requirementCase;
+        private final int generation;
+
+        Resolution(@NonNull RequirementCase requirementCase, int generation) {
+            this.requirementCase = requirementCase;
+            this.generation = generation;
+        }
+
+        @Override
+        public void onRequirementCaseResult(final boolean result, @Nullable final Payload payload) {
+            if (mainScheduler.isCurrentThread()) {
+                deliver(result, payload);
             } else {
-                listenerSource.onRequirementFailure(payload);
-                end(false);
+                mainScheduler.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        deliver(result, payload);
+                    }
+                });
             }
+        }
 
-        } else {
-            throw new IllegalStateException("Unexpected state inside Requirement. RequirementCase delivered a result " +
-                    "whilst this Requirement has no pending cases");
+        private void deliver(boolean result, @Nullable Payload payload) {
+            if (generation == RequirementImpl.this.generation
+                    && currentCase() == requirementCase) {
+                RequirementImpl.this.onRequirementCaseResult(requirementCase, result, payload);
+            }
         }
     }
 
     private class ActivityDestroyedListener extends ActivityLifecycleCallbacksAdapter {
+
+        private final Application application;
+
+        ActivityDestroyedListener(@NonNull Application application) {
+            this.application = application;
+        }
+
         @Override
         public void onActivityDestroyed(Activity a) {
-            if (activity == a) {
+            if (activity != null && activity.get() == a) {
+
+                application.unregisterActivityLifecycleCallbacks(this);
+
+                if (warmUp != null) {
+                    warmUp.cancel();
+                    warmUp = null;
+                }
 
-                a.getApplication().unregisterActivityLifecycleCallbacks(this);
+                cancelRetry();
+                cancelContinuation();
 
                 if (subscription != null) {
                     subscription.unsubscribe();
@@ -195,46 +841,355 @@ class RequirementImpl extends Requirement
                     requirementCase.detach();
                 }
 
-                deque.clear();
+                chain = null;
+                position = 0;
 
                 listenerSource.clear();
 
+                for (RequirementCase observable : requirementCases) {
+                    if (observable.isObservable()) {
+                        observable.removeObserver(RequirementImpl.this);
+                    }
+                }
+
+                RequirementRegistry.unregister(RequirementImpl.this);
+
+                // checks of isValid() calls since the last validation
+                if (statistics != null) {
+                    statistics.persist();
+                }
+
+                // cases first, readers on other threads check both
+                requirementCases = null;
                 eventDispatcher = null;
                 activity = null;
                 eventSource = null;
-                requirementCases = null;
             }
         }
     }
 
-    private static class ListenerSource implements Listener {
+    /**
+     * Check that is executed when the main thread becomes idle. If a custom main scheduler is used,
+     * it is executed with that scheduler instead.
+     */
+    private class WarmUp implements MessageQueue.IdleHandler, Runnable {
 
-        private final List<Listener> listeners;
+        private final long validityMillis;
 
-        ListenerSource() {
-            this.listeners = new ArrayList<>(3);
+        private Scheduler.Task task;
+
+        WarmUp(long validityMillis) {
+            this.validityMillis = validityMillis;
+        }
+
+        void schedule() {
+            if (isMainThreadScheduler()) {
+                Looper.myQueue().addIdleHandler(this);
+            } else {
+                task = mainScheduler.schedule(this, 0L);
+            }
+        }
+
+        void cancel() {
+            if (task != null) {
+                task.cancel();
+                task = null;
+            } else {
+                Looper.myQueue().removeIdleHandler(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            task = null;
+            queueIdle();
         }
 
         @Override
-        public void onRequirementSuccess() {
-            for (Listener listener : listeners) {
-                listener.onRequirementSuccess();
+        public boolean queueIdle() {
+
+            warmUp = null;
+
+            // resolution in progress will deliver its own result
+            if (activity != null && subscription == null) {
+                snapshot = new Snapshot(check(), SystemClock.uptimeMillis() + validityMillis);
             }
+
+            // one-shot
+            return false;
+        }
+    }
+
+    /**
+     * Re-checks a case with background scheduler according to its {@link RetryPolicy}.
+     * Final result is delivered with main scheduler: either the chain continues or
+     * resolution of the case is started.
+     */
+    private class Retry implements Runnable {
+
+        private final EventDispatcher eventDispatcher;
+        private final RequirementCase requirementCase;
+        private final int index;
+        private final RetryPolicy policy;
+
+        // accessed only from background scheduler
+        private int attempt;
+
+        private volatile Scheduler.Task task;
+        private volatile boolean isCancelled;
+
+        Retry(
+                @NonNull EventDispatcher eventDispatcher,
+                @NonNull RequirementCase requirementCase,
+                int index,
+                @NonNull RetryPolicy policy
+        ) {
+            this.eventDispatcher = eventDispatcher;
+            this.requirementCase = requirementCase;
+            this.index = index;
+            this.policy = policy;
+        }
+
+        void schedule() {
+            task = backgroundScheduler().schedule(this, policy.delayMillis(attempt, RANDOM));
         }
 
         @Override
-        public void onRequirementFailure(@Nullable Payload payload) {
-            for (Listener listener : listeners) {
-                listener.onRequirementFailure(payload);
+        public void run() {
+
+            if (isCancelled) {
+                return;
+            }
+
+            final boolean result = meetsRequirement(Trace.RETRY_CHECK, index, eventDispatcher, requirementCase);
+
+            attempt += 1;
+
+            if (!result && attempt < policy.maxAttempts()) {
+                schedule();
+                return;
             }
+
+            mainScheduler.execute(new Runnable() {
+                @Override
+                public void run() {
+                    finish(result);
+                }
+            });
         }
 
-        void add(@NonNull Listener listener) {
-            listeners.add(listener);
+        void cancel() {
+            isCancelled = true;
+            final Scheduler.Task task = this.task;
+            if (task != null) {
+                task.cancel();
+            }
+        }
+
+        private void finish(boolean result) {
+
+            if (isCancelled || retry != this) {
+                return;
+            }
+
+            retry = null;
+
+            if (result) {
+                markSatisfied(requirementCases, index);
+                if (!progress(ListenerSource.SATISFIED, requirementCase, chain.length - position - 1)) {
+                    return;
+                }
+                position += 1;
+                validate();
+            } else {
+                startResolution(requirementCase);
+            }
+        }
+    }
+
+    private static class Snapshot {
+
+        final boolean result;
+        final long expiresAt;
+
+        Snapshot(boolean result, long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isFresh() {
+            return SystemClock.uptimeMillis() < expiresAt;
+        }
+
+        // fresh and all cases are satisfied
+        boolean isValid() {
+            return result && isFresh();
+        }
+    }
+
+    /**
+     * Keeps listeners with their executors. When a result is delivered, listeners are detached from
+     * this source first (so a listener can start new validation) and then are notified in batches:
+     * one task for each distinct executor (in the order executors were first supplied) that notifies
+     * its listeners in the order they were added. Listeners without an executor are notified
+     * synchronously after all batches were submitted.
+     */
+    private static class ListenerSource {
+
+        static final int ENTERED = 0;
+        static final int SATISFIED = 1;
+        static final int RESOLVED = 2;
+
+        private final List<Entry> entries;
+
+        // number of ProgressListeners in entries, so progress costs nothing if there are none
+        private int progressListeners;
+
+        ListenerSource() {
+            this.entries = new ArrayList<>(3);
+        }
+
+        void add(@NonNull Listener listener, @Nullable Executor executor) {
+            entries.add(new Entry(listener, executor));
+            if (listener instanceof ProgressListener) {
+                progressListeners += 1;
+            }
         }
 
         void clear() {
-            listeners.clear();
+            entries.clear();
+            progressListeners = 0;
+        }
+
+        int size() {
+            return entries.size();
+        }
+
+        void progress(int type, @NonNull RequirementCase requirementCase, int remaining) {
+
+            if (progressListeners == 0) {
+                return;
+            }
+
+            // a listener can add another one whilst being notified
+            for (Entry entry : new ArrayList<>(entries)) {
+                if (entry.listener instanceof ProgressListener) {
+                    final Progress progress = new Progress(
+                            (ProgressListener) entry.listener, type, requirementCase, remaining);
+                    if (entry.executor != null) {
+                        entry.executor.execute(progress);
+                    } else {
+                        progress.run();
+                    }
+                }
+            }
+        }
+
+        void deliver(boolean success, @Nullable Payload payload) {
+
+            if (entries.isEmpty()) {
+                return;
+            }
+
+            final List<Batch> batches = new ArrayList<>(2);
+
+            for (Entry entry : entries) {
+                Batch batch = null;
+                for (Batch b : batches) {
+                    if (b.executor == entry.executor) {
+                        batch = b;
+                        break;
+                    }
+                }
+                if (batch == null) {
+                    batch = new Batch(entry.executor, success, payload);
+                    batches.add(batch);
+                }
+                batch.listeners.add(entry.listener);
+            }
+
+            entries.clear();
+            progressListeners = 0;
+
+            Batch synchronous = null;
+
+            for (Batch batch : batches) {
+                if (batch.executor == null) {
+                    synchronous = batch;
+                } else {
+                    batch.executor.execute(batch);
+                }
+            }
+
+            if (synchronous != null) {
+                synchronous.run();
+            }
+        }
+
+        private static class Progress implements Runnable {
+
+            final ProgressListener listener;
+            final int type;
+            final RequirementCase requirementCase;
+            final int remaining;
+
+            Progress(@NonNull ProgressListener listener, int type, @NonNull RequirementCase requirementCase, int remaining) {
+                this.listener = listener;
+                this.type = type;
+                this.requirementCase = requirementCase;
+                this.remaining = remaining;
+            }
+
+            @Override
+            public void run() {
+                switch (type) {
+                    case ENTERED:
+                        listener.onCaseEntered(requirementCase, remaining);
+                        break;
+                    case SATISFIED:
+                        listener.onCaseSatisfied(requirementCase, remaining);
+                        break;
+                    case RESOLVED:
+                        listener.onCaseResolved(requirementCase, remaining);
+                        break;
+                }
+            }
+        }
+
+        private static class Entry {
+
+            final Listener listener;
+            final Executor executor;
+
+            Entry(@NonNull Listener listener, @Nullable Executor executor) {
+                this.listener = listener;
+                this.executor = executor;
+            }
+        }
+
+        private static class Batch implements Runnable {
+
+            final Executor executor;
+            final boolean success;
+            final Payload payload;
+            final List<Listener> listeners = new ArrayList<>(3);
+
+            Batch(@Nullable Executor executor, boolean success, @Nullable Payload payload) {
+                this.executor = executor;
+                this.success = success;
+                this.payload = payload;
+            }
+
+            @Override
+            public void run() {
+                for (Listener listener : listeners) {
+                    if (success) {
+                        listener.onRequirementSuccess();
+                    } else {
+                        listener.onRequirementFailure(payload);
+                    }
+                }
+            }
         }
     }
 }
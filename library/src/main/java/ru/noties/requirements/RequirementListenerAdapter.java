@@ -1,12 +1,15 @@
 package ru.noties.requirements;
 
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 /**
  * Simple abstract class that implements all methods from {@link ru.noties.requirements.Requirement.Listener}
+ * <p>
+ * Changed in 1.2.0: implements {@link ru.noties.requirements.Requirement.ProgressListener}
  */
 @SuppressWarnings("unused")
-public abstract class RequirementListenerAdapter implements Requirement.Listener {
+public abstract class RequirementListenerAdapter implements Requirement.ProgressListener {
     @Override
     public void onRequirementSuccess() {
 
@@ -16,4 +19,19 @@ public abstract class RequirementListenerAdapter implements Requirement.Listener
     public void onRequirementFailure(@Nullable Payload payload) {
 
     }
+
+    @Override
+    public void onCaseEntered(@NonNull RequirementCase<?> requirementCase, int remaining) {
+
+    }
+
+    @Override
+    public void onCaseSatisfied(@NonNull RequirementCase<?> requirementCase, int remaining) {
+
+    }
+
+    @Override
+    public void onCaseResolved(@NonNull RequirementCase<?> requirementCase, int remaining) {
+
+    }
 }
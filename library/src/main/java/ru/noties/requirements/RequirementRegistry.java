@@ -0,0 +1,85 @@
+package ru.noties.requirements;
+
+import android.support.annotation.NonNull;
+
+import java.io.PrintWriter;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registry of live requirements (those whose activity has not been destroyed yet). Can be used to
+ * see what requirements are doing, for example from `Activity.dump` (`adb shell dumpsys activity`):
+ * <pre>
+ * &#64;Override
+ * public void dump(String prefix, FileDescriptor fd, PrintWriter writer, String[] args) {
+ *     super.dump(prefix, fd, writer, args);
+ *     RequirementRegistry.dump(prefix, writer);
+ * }
+ * </pre>
+ * Requirements are held weakly. Registration happens once per requirement, so the registry costs
+ * nothing until it is dumped.
+ *
+ * @see Requirement#dump(String, PrintWriter)
+ * @since 1.2.0
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public abstract class RequirementRegistry {
+
+    private static final List<WeakReference<Requirement>> REQUIREMENTS = new CopyOnWriteArrayList<>();
+
+    /**
+     * @return live requirements
+     */
+    @NonNull
+    public static List<Requirement> requirements() {
+        final List<Requirement> list = new ArrayList<>(REQUIREMENTS.size());
+        for (WeakReference<Requirement> reference : REQUIREMENTS) {
+            final Requirement requirement = reference.get();
+            if (requirement != null) {
+                list.add(requirement);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Prints state of all live requirements. Must be called from the main thread
+     *
+     * @param prefix to print before each line
+     * @param writer to print to
+     */
+    public static void dump(@NonNull String prefix, @NonNull PrintWriter writer) {
+        final List<Requirement> requirements = requirements();
+        writer.print(prefix);
+        writer.print("Requirements (live: ");
+        writer.print(requirements.size());
+        writer.println(')');
+        final String nested = prefix + "  ";
+        for (Requirement requirement : requirements) {
+            requirement.dump(nested, writer);
+        }
+    }
+
+    static void register(@NonNull Requirement requirement) {
+        for (WeakReference<Requirement> reference : REQUIREMENTS) {
+            if (reference.get() == null) {
+                REQUIREMENTS.remove(reference);
+            }
+        }
+        REQUIREMENTS.add(new WeakReference<>(requirement));
+    }
+
+    static void unregister(@NonNull Requirement requirement) {
+        for (WeakReference<Requirement> reference : REQUIREMENTS) {
+            final Requirement r = reference.get();
+            if (r == null || r == requirement) {
+                REQUIREMENTS.remove(reference);
+            }
+        }
+    }
+
+    private RequirementRegistry() {
+    }
+}
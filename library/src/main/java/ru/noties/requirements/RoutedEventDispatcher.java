@@ -0,0 +1,70 @@
+package ru.noties.requirements;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.RequiresApi;
+
+import java.util.Map;
+
+/**
+ * Dispatches requests of a wrapped dispatcher through its Activity with a request code encoded
+ * by a route (it fits in lower 16 bits, so a support FragmentActivity accepts it), all other calls
+ * are delegated
+ *
+ * @see EventRouter
+ */
+// @since 1.2.0
+class RoutedEventDispatcher<T> extends EventDispatcher<T> {
+
+    private final EventDispatcher<T> eventDispatcher;
+    private final EventRouterImpl.RouteImpl route;
+
+    RoutedEventDispatcher(@NonNull EventDispatcher<T> eventDispatcher, @NonNull EventRouterImpl.RouteImpl route) {
+        this.eventDispatcher = eventDispatcher;
+        this.route = route;
+    }
+
+    @NonNull
+    @Override
+    public Activity activity() {
+        return eventDispatcher.activity();
+    }
+
+    @NonNull
+    @Override
+    public T target() {
+        return eventDispatcher.target();
+    }
+
+    @Override
+    public void startActivityForResult(@NonNull Intent intent, int requestCode) {
+        activity().startActivityForResult(intent, route.encode(requestCode));
+    }
+
+    @Override
+    @RequiresApi(Build.VERSION_CODES.M)
+    public void requestPermission(@NonNull String permission, int requestCode) {
+        activity().requestPermissions(new String[]{permission}, route.encode(requestCode));
+    }
+
+    @Override
+    @RequiresApi(Build.VERSION_CODES.M)
+    public boolean checkSelfPermission(@NonNull String permission) {
+        return eventDispatcher.checkSelfPermission(permission);
+    }
+
+    @Nullable
+    @Override
+    public Map<String, Boolean> checkSelfPermissions() {
+        return eventDispatcher.checkSelfPermissions();
+    }
+
+    @Override
+    @RequiresApi(Build.VERSION_CODES.M)
+    public boolean shouldShowRequestPermissionRationale(@NonNull String permission) {
+        return eventDispatcher.shouldShowRequestPermissionRationale(permission);
+    }
+}
@@ -0,0 +1,45 @@
+package ru.noties.requirements;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+
+import java.io.IOException;
+
+/**
+ * State of requirement cases that is shared between processes of an application. Requirement
+ * engine records satisfied cases in a file, so other processes can skip their
+ * own (IPC-heavy) checks of the same cases. Only cases that declare identity key and positive
+ * {@link RequirementCase#sharedStateValidityMillis()} are shared.
+ * <p>
+ * Checks of shared state are memory reads and do not block, so they can be made on the main thread.
+ *
+ * @see #create(Context)
+ * @see RequirementBuilder#sharedState(SharedState)
+ * @since 1.2.0
+ */
+public abstract class SharedState {
+
+    /**
+     * Factory method to obtain an instance of {@link SharedState} that is backed by a file
+     * in application files directory. The file is opened once per process, subsequent calls
+     * return the same instance. State stored whilst application was not running (by processes
+     * that are not running anymore) is discarded, as it could have been invalidated meanwhile.
+     * Must be called in each process that shares state.
+     *
+     * @param context Context
+     * @return an instance of {@link SharedState}
+     * @throws IOException if backing file cannot be created
+     */
+    @NonNull
+    public static SharedState create(@NonNull Context context) throws IOException {
+        return SharedStateImpl.obtain(context.getApplicationContext());
+    }
+
+    /**
+     * @return a boolean indicating if case with supplied key was recorded as satisfied not earlier
+     * than `maxAgeMillis` ago
+     */
+    abstract boolean isSatisfied(@NonNull String key, long maxAgeMillis);
+
+    abstract void setSatisfied(@NonNull String key, boolean satisfied);
+}
@@ -0,0 +1,342 @@
+package ru.noties.requirements;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.os.Process;
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fixed-size table of direct-mapped slots in a memory-mapped file. Header:
+ * <pre>
+ * int  magic
+ * int  reserved
+ * long boot time (System.currentTimeMillis - SystemClock.elapsedRealtime)
+ * long launch    (start time of the oldest running process of the application)
+ * </pre>
+ * Each slot:
+ * <pre>
+ * long sequence  (odd whilst slot is being written)
+ * long key hash  (64-bit FNV-1a)
+ * long launch    (launch of the process that has written this slot)
+ * long timestamp (SystemClock.elapsedRealtime, the same clock for all processes of a boot)
+ * long value     (1 - satisfied, 0 - not satisfied)
+ * long checksum  (of all the fields above)
+ * </pre>
+ * Reads do not lock and do not make system calls: a slot is read from the mapping and is trusted
+ * only if its sequence is even, has not changed during the read and checksum matches (Java does not
+ * define ordering of memory shared between processes, so a torn read is detected by checksum).
+ * Writes hold a file lock of a slot (other processes) and a monitor (this process, file locks are
+ * held by a process). The file is opened once per process, see {@link #obtain(Context)}.
+ * <p>
+ * Launch is the same for all processes that are running together. If all processes of the
+ * application are killed (for example when a permission is revoked) and started again, launch
+ * changes and previously written slots are not trusted (the file is reset by the first process
+ * that observes the change). If boot time stored in the header does not match current one,
+ * the file was written during a previous boot and is reset. A slot collision simply evicts
+ * previous key, which results in a regular check.
+ */
+// @since 1.2.0
+class SharedStateImpl extends SharedState {
+
+    static final String FILE_NAME = "ru.noties.requirements.SharedState";
+
+    private static final int MAGIC = 0x52515333; // RQS3
+
+    private static final int HEADER_SIZE = 24;
+    private static final int SLOT_SIZE = 48;
+    private static final int SLOTS = 64; // must be power of 2
+
+    private static final int OFFSET_BOOT_TIME = 8;
+    private static final int OFFSET_LAUNCH = 16;
+
+    private static final int OFFSET_SEQUENCE = 0;
+    private static final int OFFSET_KEY = 8;
+    private static final int OFFSET_SLOT_LAUNCH = 16;
+    private static final int OFFSET_TIMESTAMP = 24;
+    private static final int OFFSET_VALUE = 32;
+    private static final int OFFSET_CHECKSUM = 40;
+
+    // a slot that is being written is treated as unknown after these attempts
+    private static final int READ_ATTEMPTS = 3;
+
+    // boot time is derived from wall clock, so it can drift slightly (or jump if time is changed,
+    // which only results in a reset)
+    private static final long BOOT_TIME_TOLERANCE_MILLIS = 10000L;
+
+    // guarded by class
+    private static final Map<String, SharedState> INSTANCES = new HashMap<>(1);
+
+    /**
+     * @return the instance of this process (launch is computed and backing file is opened once)
+     */
+    @NonNull
+    static synchronized SharedState obtain(@NonNull Context context) throws IOException {
+        final File file = new File(context.getFilesDir(), FILE_NAME);
+        final String path = file.getCanonicalPath();
+        SharedState state = INSTANCES.get(path);
+        if (state == null) {
+            final long launch = launch(context);
+            state = launch < 0L
+                    ? new Unavailable()
+                    : new SharedStateImpl(file, bootTime(), launch);
+            INSTANCES.put(path, state);
+        }
+        return state;
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long launch;
+
+    SharedStateImpl(@NonNull File file, long bootTime, long launch) throws IOException {
+
+        final int size = HEADER_SIZE + SLOTS * SLOT_SIZE;
+
+        this.channel = new RandomAccessFile(file, "rw").getChannel();
+        this.launch = launch;
+
+        try {
+            final FileLock lock = channel.lock();
+            try {
+
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                final boolean isValid = channel.size() == size
+                        && channel.read(header, 0L) == HEADER_SIZE
+                        && header.getInt(0) == MAGIC
+                        && Math.abs(header.getLong(OFFSET_BOOT_TIME) - bootTime) <= BOOT_TIME_TOLERANCE_MILLIS
+                        && header.getLong(OFFSET_LAUNCH) == launch;
+
+                if (!isValid) {
+                    final ByteBuffer empty = ByteBuffer.allocate(size);
+                    empty.putInt(0, MAGIC);
+                    empty.putLong(OFFSET_BOOT_TIME, bootTime);
+                    empty.putLong(OFFSET_LAUNCH, launch);
+                    channel.truncate(0L);
+                    while (empty.hasRemaining()) {
+                        channel.write(empty, empty.position());
+                    }
+                    channel.force(false);
+                }
+            } finally {
+                lock.release();
+            }
+
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0L, size);
+
+        } catch (IOException | OverlappingFileLockException e) {
+            channel.close();
+            throw e instanceof IOException
+                    ? (IOException) e
+                    : new IOException("Shared state file is already opened by this process: " + file, e);
+        }
+    }
+
+    @Override
+    boolean isSatisfied(@NonNull String key, long maxAgeMillis) {
+
+        final long hash = hash(key);
+        final int offset = offset(hash);
+
+        for (int i = 0; i < READ_ATTEMPTS; i++) {
+
+            final long sequence = buffer.getLong(offset + OFFSET_SEQUENCE);
+            if ((sequence & 1L) != 0L) {
+                // a writer is active
+                continue;
+            }
+
+            final long slotKey = buffer.getLong(offset + OFFSET_KEY);
+            final long slotLaunch = buffer.getLong(offset + OFFSET_SLOT_LAUNCH);
+            final long timestamp = buffer.getLong(offset + OFFSET_TIMESTAMP);
+            final long value = buffer.getLong(offset + OFFSET_VALUE);
+            final long checksum = buffer.getLong(offset + OFFSET_CHECKSUM);
+
+            if (sequence != buffer.getLong(offset + OFFSET_SEQUENCE)
+                    || checksum != checksum(sequence, slotKey, slotLaunch, timestamp, value)) {
+                continue;
+            }
+
+            if (slotKey != hash || slotLaunch != launch || value != 1L) {
+                return false;
+            }
+
+            final long age = SystemClock.elapsedRealtime() - timestamp;
+            return age >= 0L && age <= maxAgeMillis;
+        }
+
+        return false;
+    }
+
+    @Override
+    synchronized void setSatisfied(@NonNull String key, boolean satisfied) {
+
+        final long hash = hash(key);
+        final int offset = offset(hash);
+
+        FileLock lock = null;
+        try {
+            lock = channel.lock(offset, SLOT_SIZE, false);
+
+            // nothing to clear (slot holds another key)
+            if (!satisfied && buffer.getLong(offset + OFFSET_KEY) != hash) {
+                return;
+            }
+
+            // a writer could have been killed whilst sequence was odd
+            final long sequence = buffer.getLong(offset + OFFSET_SEQUENCE) | 1L;
+            final long timestamp = SystemClock.elapsedRealtime();
+            final long value = satisfied ? 1L : 0L;
+
+            buffer.putLong(offset + OFFSET_SEQUENCE, sequence);
+            buffer.putLong(offset + OFFSET_KEY, hash);
+            buffer.putLong(offset + OFFSET_SLOT_LAUNCH, launch);
+            buffer.putLong(offset + OFFSET_TIMESTAMP, timestamp);
+            buffer.putLong(offset + OFFSET_VALUE, value);
+            buffer.putLong(offset + OFFSET_CHECKSUM, checksum(sequence + 1L, hash, launch, timestamp, value));
+            buffer.putLong(offset + OFFSET_SEQUENCE, sequence + 1L);
+
+        } catch (IOException | OverlappingFileLockException e) {
+            // state is not shared, other processes will do their own checks
+        } finally {
+            if (lock != null) {
+                try {
+                    lock.release();
+                } catch (IOException e) {
+                    // no op
+                }
+            }
+        }
+    }
+
+    private static int offset(long hash) {
+        return HEADER_SIZE + ((int) (hash & (SLOTS - 1))) * SLOT_SIZE;
+    }
+
+    // 64-bit FNV-1a
+    private static long hash(@NonNull String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0, length = key.length(); i < length; i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long checksum(long sequence, long key, long launch, long timestamp, long value) {
+        long checksum = mix(sequence);
+        checksum = mix(checksum ^ key);
+        checksum = mix(checksum ^ launch);
+        checksum = mix(checksum ^ timestamp);
+        return mix(checksum ^ value);
+    }
+
+    private static long mix(long value) {
+        value *= 0x9e3779b97f4a7c15L;
+        return value ^ (value >>> 29);
+    }
+
+    // the same for all processes of a boot, changes with each boot
+    static long bootTime() {
+        return System.currentTimeMillis() - SystemClock.elapsedRealtime();
+    }
+
+    // the same for all processes that are running together, changes when all of them are restarted,
+    // -1 if cannot be obtained
+    static long launch(@NonNull Context context) {
+
+        final int pid = Process.myPid();
+
+        long launch = startTime(pid);
+        if (launch < 0L) {
+            return -1L;
+        }
+
+        final ActivityManager manager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        final List<ActivityManager.RunningAppProcessInfo> processes = manager != null
+                ? manager.getRunningAppProcesses()
+                : null;
+        if (processes != null) {
+            final int uid = Process.myUid();
+            for (ActivityManager.RunningAppProcessInfo info : processes) {
+                if (info.uid == uid && info.pid != pid) {
+                    final long startTime = startTime(info.pid);
+                    if (startTime >= 0L && startTime < launch) {
+                        launch = startTime;
+                    }
+                }
+            }
+        }
+
+        return launch;
+    }
+
+    private static long startTime(int pid) {
+        try {
+            final BufferedReader reader = new BufferedReader(new FileReader("/proc/" + pid + "/stat"));
+            try {
+                return parseStartTime(reader.readLine());
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            return -1L;
+        }
+    }
+
+    /**
+     * @return start time of a process (clock ticks since boot, 22nd field of `/proc/[pid]/stat`)
+     * or -1 if it cannot be parsed
+     */
+    static long parseStartTime(@Nullable String stat) {
+
+        // 2nd field is the name of a process in parentheses, it can contain spaces and parentheses
+        final int end = stat != null
+                ? stat.lastIndexOf(')')
+                : -1;
+        if (end < 0 || end + 2 > stat.length()) {
+            return -1L;
+        }
+
+        // fields after the name start with the 3rd one
+        final String[] fields = stat.substring(end + 2).split(" ");
+        if (fields.length < 20) {
+            return -1L;
+        }
+
+        try {
+            return Long.parseLong(fields[19]);
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    // launch cannot be obtained, so state of other processes cannot be trusted
+    private static class Unavailable extends SharedState {
+
+        @Override
+        boolean isSatisfied(@NonNull String key, long maxAgeMillis) {
+            return false;
+        }
+
+        @Override
+        void setSatisfied(@NonNull String key, boolean satisfied) {
+
+        }
+    }
+}
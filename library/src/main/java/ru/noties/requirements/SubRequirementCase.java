@@ -0,0 +1,74 @@
+package ru.noties.requirements;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * {@link RequirementCase} that is satisfied when its {@link Requirement} is valid. Check and
+ * resolution are delegated to the requirement, so its cached state and resolution in progress
+ * are shared by all chains that contain it.
+ *
+ * @see Requirement#asCase()
+ */
+// @since 1.2.0
+class SubRequirementCase extends RequirementCase<Object> {
+
+    private final RequirementImpl requirement;
+
+    // listener of resolution in progress, results of previous (detached) resolutions are ignored
+    private ResolutionListener pending;
+
+    SubRequirementCase(@NonNull RequirementImpl requirement) {
+        this.requirement = requirement;
+    }
+
+    @Override
+    public boolean meetsRequirement() {
+        return requirement.isValid();
+    }
+
+    @Override
+    public void startResolution() {
+        pending = new ResolutionListener();
+        requirement.validate(pending);
+    }
+
+    @Override
+    public boolean isObservable() {
+        return requirement.isObservable();
+    }
+
+    @Override
+    public boolean covers(@NonNull RequirementCase<?> other) {
+        return other instanceof SubRequirementCase
+                ? ((SubRequirementCase) other).requirement == requirement
+                : requirement.contains(other);
+    }
+
+    // called by requirement when its cached state has changed
+    void onRequirementChanged() {
+        notifyChanged();
+    }
+
+    private class ResolutionListener implements Requirement.Listener {
+
+        @Override
+        public void onRequirementSuccess() {
+            deliver(true, null);
+        }
+
+        @Override
+        public void onRequirementFailure(@Nullable Payload payload) {
+            deliver(false, payload);
+        }
+
+        private void deliver(boolean result, @Nullable Payload payload) {
+            if (pending == this) {
+                pending = null;
+                if (isAttached()) {
+                    deliverResult(result, payload);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package ru.noties.requirements;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays sessions recorded by {@link TraceRecorder}. For each recorded requirement (events are
+ * tagged with requirement id, so requirements can share a recorder) a requirement is created with
+ * stub cases that return recorded check results and deliver recorded resolution results, recorded
+ * activity and permissions results are redirected to it through its own {@link EventSource}.
+ * All work is executed synchronously with {@link VirtualTimeScheduler}, so replay is deterministic
+ * and does not wait for recorded delays.
+ * <p>
+ * Replay requires no Activity (stub cases never use a dispatcher), so it can be executed on JVM.
+ * <p>
+ * Please note that retries are not replayed: a case that was retried is considered to have the result
+ * of its last recorded check.
+ *
+ * @see #replay(Trace)
+ * @since 1.2.0
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public abstract class TraceReplayer {
+
+    /**
+     * Replays supplied trace
+     *
+     * @param trace to replay
+     * @return {@link Result} of replay
+     * @throws IllegalStateException if trace contains no session
+     */
+    @NonNull
+    public static Result replay(@NonNull Trace trace) throws IllegalStateException {
+
+        final List<Trace.Event> events = trace.events();
+
+        Trace.Event first = null;
+        for (Trace.Event event : events) {
+            if (event.type() == Trace.SESSION_STARTED) {
+                first = event;
+                break;
+            }
+        }
+        Preconditions.checkNonNull(first, "Supplied trace does not contain a session");
+
+        final VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+
+        // requirement id -> its replay, created when its first session starts
+        final Map<Integer, Replay> replays = new LinkedHashMap<>();
+
+        int sessions = 0;
+        int mismatches = 0;
+
+        final long start = System.nanoTime();
+
+        for (int i = 0, size = events.size(); i < size; i++) {
+
+            final Trace.Event event = events.get(i);
+
+            Replay replay = replays.get(event.requirement());
+
+            if (event.type() == Trace.SESSION_STARTED) {
+                if (replay == null) {
+                    replay = new Replay(event.requirement(), (int) event.arg0(), scheduler);
+                    replays.put(event.requirement(), replay);
+                }
+                sessions += 1;
+                replay.start(events, i);
+            } else if (replay == null) {
+                // events before the first session of a requirement (for example results that were
+                // received whilst it was idle) do not affect sessions
+                continue;
+            } else if (!replay.onEvent(event)) {
+                mismatches += 1;
+            }
+
+            scheduler.runPending();
+        }
+
+        final long replayNanos = System.nanoTime() - start;
+
+        final Trace.Event last = events.get(events.size() - 1);
+
+        return new Result(sessions, mismatches, replayNanos, last.timeMicros() - first.timeMicros());
+    }
+
+    /**
+     * Result of a replay
+     */
+    public static final class Result {
+
+        private final int sessions;
+        private final int mismatches;
+        private final long replayNanos;
+        private final long recordedMicros;
+
+        Result(int sessions, int mismatches, long replayNanos, long recordedMicros) {
+            this.sessions = sessions;
+            this.mismatches = mismatches;
+            this.replayNanos = replayNanos;
+            this.recordedMicros = recordedMicros;
+        }
+
+        /**
+         * @return number of replayed sessions (of all requirements)
+         */
+        public int sessions() {
+            return sessions;
+        }
+
+        /**
+         * @return number of sessions which result differs from recorded one
+         */
+        public int mismatches() {
+            return mismatches;
+        }
+
+        /**
+         * @return wall time of replay in nanoseconds (engine overhead, as stub cases do no work)
+         */
+        public long replayNanos() {
+            return replayNanos;
+        }
+
+        /**
+         * @return recorded duration of all sessions in microseconds
+         */
+        public long recordedMicros() {
+            return recordedMicros;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{" +
+                    "sessions=" + sessions +
+                    ", mismatches=" + mismatches +
+                    ", replayNanos=" + replayNanos +
+                    ", recordedMicros=" + recordedMicros +
+                    '}';
+        }
+    }
+
+    // replay of a single recorded requirement
+    private static class Replay {
+
+        final int requirement;
+        final ReplayCase[] cases;
+        final EventSource eventSource;
+        final Requirement requirementImpl;
+        final ResultListener listener = new ResultListener();
+
+        Replay(int requirement, int size, @NonNull Scheduler scheduler) {
+            this.requirement = requirement;
+            this.cases = new ReplayCase[size];
+            for (int i = 0; i < size; i++) {
+                cases[i] = new ReplayCase();
+            }
+            this.eventSource = EventSource.create();
+            // not bound: there is no activity to observe and nothing to register
+            this.requirementImpl = new RequirementImpl(
+                    new ReplayDispatcher(),
+                    eventSource,
+                    cases,
+                    null,
+                    null,
+                    scheduler,
+                    scheduler,
+                    null,
+                    null,
+                    0L
+            );
+        }
+
+        void start(@NonNull List<Trace.Event> events, int position) {
+            prepareChecks(events, position);
+            listener.result = null;
+            requirementImpl.validate(listener);
+        }
+
+        // returns false if replayed result of a session differs from recorded one
+        boolean onEvent(@NonNull Trace.Event event) {
+
+            switch (event.type()) {
+
+                case Trace.ACTIVITY_RESULT:
+                    eventSource.onActivityResult(event.requestCode(), event.resultCode(), null);
+                    break;
+
+                case Trace.PERMISSIONS_RESULT:
+                    final int[] grantResults = event.grantResults();
+                    final String[] permissions = new String[grantResults.length];
+                    Arrays.fill(permissions, "");
+                    eventSource.onRequestPermissionsResult(event.requestCode(), permissions, grantResults);
+                    break;
+
+                case Trace.CASE_RESULT:
+                    final int index = event.index();
+                    // if replay has diverged (recorded case is not being resolved), result of
+                    // the session will differ
+                    if (index < cases.length && cases[index].isAttached()) {
+                        cases[index].deliverResult(event.result());
+                    }
+                    break;
+
+                case Trace.CANCELLED:
+                    requirementImpl.cancel();
+                    break;
+
+                case Trace.RESULT_DELIVERED:
+                    final Boolean result = listener.result;
+                    listener.result = null;
+                    return result != null && result == event.result();
+            }
+
+            return true;
+        }
+
+        // fills check results of cases with checks of the session that starts at supplied position
+        private void prepareChecks(@NonNull List<Trace.Event> events, int position) {
+
+            for (ReplayCase replayCase : cases) {
+                replayCase.checks.clear();
+            }
+
+            for (int i = position + 1, size = events.size(); i < size; i++) {
+
+                final Trace.Event event = events.get(i);
+                if (event.requirement() != requirement) {
+                    continue;
+                }
+
+                final int type = event.type();
+
+                if (type == Trace.SESSION_STARTED) {
+                    break;
+                }
+
+                if (event.index() >= cases.length) {
+                    continue;
+                }
+
+                if (type == Trace.CHECK) {
+                    cases[event.index()].checks.addLast(event.result());
+                } else if (type == Trace.RETRY_CHECK) {
+                    // retries are not replayed, the last retry defines result of the check
+                    final Deque<Boolean> checks = cases[event.index()].checks;
+                    checks.pollLast();
+                    checks.addLast(event.result());
+                }
+            }
+        }
+    }
+
+    private static class ReplayCase extends RequirementCase<Object> {
+
+        final Deque<Boolean> checks = new ArrayDeque<>(2);
+
+        // a case that has no recorded check in a session was satisfied from cache
+        @Override
+        public boolean meetsRequirement() {
+            final Boolean result = checks.pollFirst();
+            return result == null || result;
+        }
+
+        @Override
+        public void startResolution() {
+            // result is delivered when recorded CASE_RESULT event is replayed
+        }
+
+        // visible to replayer
+        @Override
+        protected void deliverResult(boolean result) {
+            super.deliverResult(result);
+        }
+    }
+
+    // stub cases never use a dispatcher, requirement needs one only to attach them
+    private static class ReplayDispatcher extends EventDispatcher<Object> {
+
+        @NonNull
+        @Override
+        public Activity activity() {
+            throw unavailable();
+        }
+
+        @NonNull
+        @Override
+        public Object target() {
+            throw unavailable();
+        }
+
+        @Override
+        public void startActivityForResult(@NonNull Intent intent, int requestCode) {
+            throw unavailable();
+        }
+
+        @Override
+        public void requestPermission(@NonNull String permission, int requestCode) {
+            throw unavailable();
+        }
+
+        @Override
+        public boolean checkSelfPermission(@NonNull String permission) {
+            throw unavailable();
+        }
+
+        @Override
+        public boolean shouldShowRequestPermissionRationale(@NonNull String permission) {
+            throw unavailable();
+        }
+
+        @NonNull
+        private static IllegalStateException unavailable() {
+            return new IllegalStateException("EventDispatcher is not available during replay");
+        }
+    }
+
+    private static class ResultListener implements Requirement.Listener {
+
+        Boolean result;
+
+        @Override
+        public void onRequirementSuccess() {
+            result = Boolean.TRUE;
+        }
+
+        @Override
+        public void onRequirementFailure(@Nullable Payload payload) {
+            result = Boolean.FALSE;
+        }
+    }
+
+    private TraceReplayer() {
+    }
+}
@@ -0,0 +1,86 @@
+package ru.noties.requirements;
+
+import android.os.SystemClock;
+import android.support.annotation.NonNull;
+
+import java.io.PrintWriter;
+
+/**
+ * Fixed-size ring buffer of recent transitions of a requirement (types are {@link Trace} constants).
+ * Adding a transition is a few array writes, buffer is formatted only when dumped.
+ * Main thread only.
+ */
+// @since 1.2.0
+class TransitionLog {
+
+    // must be a power of 2
+    private static final int SIZE = 16;
+
+    private final long[] times = new long[SIZE];
+    private final int[] types = new int[SIZE];
+    private final long[] args0 = new long[SIZE];
+    private final long[] args1 = new long[SIZE];
+
+    // total number of added transitions
+    private int count;
+
+    void add(int type, long arg0, long arg1) {
+        final int index = count & (SIZE - 1);
+        times[index] = SystemClock.uptimeMillis();
+        types[index] = type;
+        args0[index] = arg0;
+        args1[index] = arg1;
+        count += 1;
+    }
+
+    void dump(@NonNull String prefix, @NonNull PrintWriter writer) {
+
+        if (count == 0) {
+            writer.print(prefix);
+            writer.println("(no transitions)");
+            return;
+        }
+
+        final long now = SystemClock.uptimeMillis();
+
+        for (int i = Math.max(0, count - SIZE); i < count; i++) {
+            final int index = i & (SIZE - 1);
+            writer.print(prefix);
+            writer.print('-');
+            writer.print(now - times[index]);
+            writer.print("ms ");
+            print(writer, types[index], args0[index], args1[index]);
+        }
+    }
+
+    private static void print(@NonNull PrintWriter writer, int type, long arg0, long arg1) {
+        switch (type) {
+            case Trace.SESSION_STARTED:
+                writer.print("started, cases: ");
+                writer.println(arg0);
+                break;
+            case Trace.CASE_ENTERED:
+                writer.print("entered #");
+                writer.println(arg0);
+                break;
+            case Trace.RESOLUTION_STARTED:
+                writer.print("resolution started #");
+                writer.println(arg0);
+                break;
+            case Trace.CASE_RESULT:
+                writer.print("resolved #");
+                writer.print(arg0);
+                writer.println(arg1 == 1L ? ", success" : ", failure");
+                break;
+            case Trace.CANCELLED:
+                writer.println("cancelled");
+                break;
+            case Trace.RESULT_DELIVERED:
+                writer.println(arg0 == 1L ? "result delivered, success" : "result delivered, failure");
+                break;
+            default:
+                writer.print("type: ");
+                writer.println(type);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package ru.noties.requirements;
+
+import android.app.Activity;
+import android.support.annotation.Nullable;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AnyOfCaseTest {
+
+    @Test
+    public void checks_stop_at_first_satisfied() {
+
+        final TestCase first = new TestCase(false);
+        final TestCase second = new TestCase(true);
+        final TestCase third = new TestCase(true);
+
+        final AnyOfCase<Activity> anyOf = AnyOfCase.create(first, second, third);
+        anyOf.attach(EventDispatcher.create(new Activity()), new RecordingCallback());
+
+        assertTrue(anyOf.meetsRequirement());
+        assertEquals(1, first.checks);
+        assertEquals(1, second.checks);
+        assertEquals(0, third.checks);
+    }
+
+    @Test
+    public void not_satisfied() {
+
+        final AnyOfCase<Activity> anyOf = new AnyOfCase<>(Arrays.asList(new TestCase(false), new TestCase(false)));
+        anyOf.attach(EventDispatcher.create(new Activity()), new RecordingCallback());
+
+        assertFalse(anyOf.meetsRequirement());
+    }
+
+    @Test
+    public void result_of_first_alternative_is_delivered() {
+
+        final TestCase first = new TestCase(false);
+        final TestCase second = new TestCase(false);
+        final RecordingCallback callback = new RecordingCallback();
+
+        final AnyOfCase<Activity> anyOf = AnyOfCase.create(first, second);
+        anyOf.attach(EventDispatcher.create(new Activity()), callback);
+        anyOf.startResolution();
+
+        assertTrue(first.isAttached());
+        assertEquals(1, first.resolutions);
+        assertEquals(0, second.resolutions);
+
+        first.deliverResult(true);
+
+        assertFalse(first.isAttached());
+        assertEquals(1, callback.results);
+        assertTrue(callback.result);
+    }
+
+    @Test
+    public void detach_detaches_resolving_alternative() {
+
+        final TestCase first = new TestCase(false);
+        final RecordingCallback callback = new RecordingCallback();
+
+        final AnyOfCase<Activity> anyOf = AnyOfCase.create(first, new TestCase(false));
+        anyOf.attach(EventDispatcher.create(new Activity()), callback);
+        anyOf.startResolution();
+
+        // for example a requirement is cancelled
+        anyOf.detach();
+
+        assertFalse(first.isAttached());
+
+        // late result of the alternative is not delivered
+        first.deliverResult(true);
+        assertEquals(0, callback.results);
+    }
+
+    private static class TestCase extends RequirementCase<Activity> {
+
+        private final boolean satisfied;
+
+        int checks;
+        int resolutions;
+
+        TestCase(boolean satisfied) {
+            this.satisfied = satisfied;
+        }
+
+        @Override
+        public boolean meetsRequirement() {
+            checks += 1;
+            return satisfied;
+        }
+
+        @Override
+        public void startResolution() {
+            resolutions += 1;
+        }
+    }
+
+    private static class RecordingCallback implements RequirementCase.Callback {
+
+        int results;
+        boolean result;
+
+        @Override
+        public void onRequirementCaseResult(boolean result, @Nullable Payload payload) {
+            this.results += 1;
+            this.result = result;
+        }
+    }
+}
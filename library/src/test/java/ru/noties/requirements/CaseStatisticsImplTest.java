@@ -0,0 +1,262 @@
+package ru.noties.requirements;
+
+import android.content.SharedPreferences;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class CaseStatisticsImplTest {
+
+    @Test
+    public void instances_of_same_class_with_identity_keys_have_own_statistics() {
+
+        final CaseStatisticsImpl statistics = new CaseStatisticsImpl(null);
+
+        final TestCase camera = new TestCase("permission:camera", true);
+        final TestCase location = new TestCase("permission:location", true);
+
+        for (int i = 0; i < 16; i++) {
+            statistics.record(camera, 1000L, true);
+            statistics.record(location, 1000L, false);
+        }
+
+        final RequirementCase[] ordered = statistics.order(new RequirementCase[]{camera, location});
+
+        assertArrayEquals(new RequirementCase[]{location, camera}, ordered);
+    }
+
+    @Test
+    public void key_falls_back_to_class_name() {
+        final TestCase requirementCase = new TestCase(null, true);
+        assertEquals(TestCase.class.getName(), CaseStatisticsImpl.key(requirementCase));
+    }
+
+    @Test
+    public void cheap_and_failing_cases_go_first() {
+
+        final CaseStatisticsImpl statistics = new CaseStatisticsImpl(null);
+
+        final TestCase slow = new TestCase("slow", true);
+        final TestCase cheap = new TestCase("cheap", true);
+
+        for (int i = 0; i < 16; i++) {
+            statistics.record(slow, 10000000L, false);
+            statistics.record(cheap, 1000L, false);
+        }
+
+        assertArrayEquals(
+                new RequirementCase[]{cheap, slow},
+                statistics.order(new RequirementCase[]{slow, cheap})
+        );
+    }
+
+    @Test
+    public void order_dependent_cases_are_barriers() {
+
+        final CaseStatisticsImpl statistics = new CaseStatisticsImpl(null);
+
+        final TestCase a = new TestCase("a", true);
+        final TestCase barrier = new TestCase("barrier", false);
+        final TestCase b = new TestCase("b", true);
+
+        for (int i = 0; i < 16; i++) {
+            statistics.record(a, 10000000L, true);
+            statistics.record(barrier, 1L, false);
+            statistics.record(b, 1L, false);
+        }
+
+        final RequirementCase[] cases = {a, barrier, b};
+        assertSame(cases, statistics.order(cases));
+    }
+
+    @Test
+    public void statistics_are_persisted() {
+
+        final MapPreferences preferences = new MapPreferences();
+
+        final TestCase fast = new TestCase("fast", true);
+        final TestCase slow = new TestCase("slow", true);
+
+        final CaseStatisticsImpl first = new CaseStatisticsImpl(preferences);
+        for (int i = 0; i < 16; i++) {
+            first.record(fast, 1000L, false);
+            first.record(slow, 10000000L, false);
+        }
+        first.persist();
+
+        assertEquals(2, preferences.map.size());
+
+        final CaseStatisticsImpl second = new CaseStatisticsImpl(preferences);
+        assertArrayEquals(
+                new RequirementCase[]{fast, slow},
+                second.order(new RequirementCase[]{slow, fast})
+        );
+    }
+
+    private static class TestCase extends RequirementCase<Object> {
+
+        private final String key;
+        private final boolean isOrderIndependent;
+
+        TestCase(String key, boolean isOrderIndependent) {
+            this.key = key;
+            this.isOrderIndependent = isOrderIndependent;
+        }
+
+        @Override
+        public boolean meetsRequirement() {
+            return true;
+        }
+
+        @Override
+        public void startResolution() {
+        }
+
+        @Override
+        public String identityKey() {
+            return key;
+        }
+
+        @Override
+        public boolean isOrderIndependent() {
+            return isOrderIndependent;
+        }
+    }
+
+    private static class MapPreferences implements SharedPreferences {
+
+        final Map<String, Object> map = new HashMap<>();
+
+        @Override
+        public Map<String, ?> getAll() {
+            return new HashMap<>(map);
+        }
+
+        @Override
+        public String getString(String key, String defValue) {
+            return map.containsKey(key) ? (String) map.get(key) : defValue;
+        }
+
+        @Override
+        public Set<String> getStringSet(String key, Set<String> defValues) {
+            //noinspection unchecked
+            return map.containsKey(key) ? (Set<String>) map.get(key) : defValues;
+        }
+
+        @Override
+        public int getInt(String key, int defValue) {
+            return map.containsKey(key) ? (Integer) map.get(key) : defValue;
+        }
+
+        @Override
+        public long getLong(String key, long defValue) {
+            return map.containsKey(key) ? (Long) map.get(key) : defValue;
+        }
+
+        @Override
+        public float getFloat(String key, float defValue) {
+            return map.containsKey(key) ? (Float) map.get(key) : defValue;
+        }
+
+        @Override
+        public boolean getBoolean(String key, boolean defValue) {
+            return map.containsKey(key) ? (Boolean) map.get(key) : defValue;
+        }
+
+        @Override
+        public boolean contains(String key) {
+            return map.containsKey(key);
+        }
+
+        @Override
+        public Editor edit() {
+            return new MapEditor();
+        }
+
+        @Override
+        public void registerOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        }
+
+        @Override
+        public void unregisterOnSharedPreferenceChangeListener(OnSharedPreferenceChangeListener listener) {
+        }
+
+        private class MapEditor implements Editor {
+
+            private final Map<String, Object> pending = new HashMap<>();
+
+            @Override
+            public Editor putString(String key, String value) {
+                pending.put(key, value);
+                return this;
+            }
+
+            @Override
+            public Editor putStringSet(String key, Set<String> values) {
+                pending.put(key, values);
+                return this;
+            }
+
+            @Override
+            public Editor putInt(String key, int value) {
+                pending.put(key, value);
+                return this;
+            }
+
+            @Override
+            public Editor putLong(String key, long value) {
+                pending.put(key, value);
+                return this;
+            }
+
+            @Override
+            public Editor putFloat(String key, float value) {
+                pending.put(key, value);
+                return this;
+            }
+
+            @Override
+            public Editor putBoolean(String key, boolean value) {
+                pending.put(key, value);
+                return this;
+            }
+
+            @Override
+            public Editor remove(String key) {
+                pending.put(key, null);
+                return this;
+            }
+
+            @Override
+            public Editor clear() {
+                map.clear();
+                return this;
+            }
+
+            @Override
+            public boolean commit() {
+                apply();
+                return true;
+            }
+
+            @Override
+            public void apply() {
+                for (Map.Entry<String, Object> entry : pending.entrySet()) {
+                    if (entry.getValue() == null) {
+                        map.remove(entry.getKey());
+                    } else {
+                        map.put(entry.getKey(), entry.getValue());
+                    }
+                }
+                pending.clear();
+            }
+        }
+    }
+}
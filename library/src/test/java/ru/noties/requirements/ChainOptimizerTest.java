@@ -0,0 +1,105 @@
+package ru.noties.requirements;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ChainOptimizerTest {
+
+    @Test
+    public void empty() {
+        assertEquals(0, ChainOptimizer.optimize(Collections.<RequirementCase>emptyList()).length);
+    }
+
+    @Test
+    public void same_instance_is_kept_once() {
+        final TestCase a = new TestCase(null);
+        final TestCase b = new TestCase(null);
+        assertArrayEquals(
+                new RequirementCase[]{a, b},
+                ChainOptimizer.optimize(Arrays.asList(a, b, a))
+        );
+    }
+
+    @Test
+    public void equal_identity_keys_keep_first() {
+        final TestCase first = new TestCase("key");
+        final TestCase other = new TestCase("other");
+        final TestCase second = new TestCase("key");
+        assertArrayEquals(
+                new RequirementCase[]{first, other},
+                ChainOptimizer.optimize(Arrays.asList(first, other, second))
+        );
+    }
+
+    @Test
+    public void covered_case_after_covering_is_dropped() {
+        final TestCase covered = new TestCase("covered");
+        final TestCase covering = new TestCase("covering", "covered");
+        assertArrayEquals(
+                new RequirementCase[]{covering},
+                ChainOptimizer.optimize(Arrays.asList(covering, covered))
+        );
+    }
+
+    @Test
+    public void covered_case_before_covering_is_kept() {
+        final TestCase covered = new TestCase("covered");
+        final TestCase covering = new TestCase("covering", "covered");
+        assertArrayEquals(
+                new RequirementCase[]{covered, covering},
+                ChainOptimizer.optimize(Arrays.asList(covered, covering))
+        );
+    }
+
+    @Test
+    public void relative_order_is_kept() {
+        final TestCase a = new TestCase("a");
+        final TestCase b = new TestCase("b");
+        final TestCase c = new TestCase("c");
+        assertArrayEquals(
+                new RequirementCase[]{c, a, b},
+                ChainOptimizer.optimize(Arrays.asList(c, a, c, b, new TestCase("a")))
+        );
+    }
+
+    private static class TestCase extends RequirementCase<Object> {
+
+        private final String key;
+        private final String coveredKey;
+
+        TestCase(String key) {
+            this(key, null);
+        }
+
+        TestCase(String key, String coveredKey) {
+            this.key = key;
+            this.coveredKey = coveredKey;
+        }
+
+        @Override
+        public boolean meetsRequirement() {
+            return true;
+        }
+
+        @Override
+        public void startResolution() {
+        }
+
+        @Override
+        public String identityKey() {
+            return key;
+        }
+
+        @Override
+        public boolean covers(@NonNull RequirementCase<?> other) {
+            return coveredKey != null && coveredKey.equals(other.identityKey());
+        }
+    }
+}
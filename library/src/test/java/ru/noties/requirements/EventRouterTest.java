@@ -0,0 +1,152 @@
+package ru.noties.requirements;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.support.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class EventRouterTest {
+
+    private final TestApplication application = new TestApplication();
+    private final SupportActivity activity = new SupportActivity();
+    private final EventRouter router = EventRouter.create();
+
+    @Test
+    public void results_are_delivered_to_owning_route() {
+
+        final EventRouter.Route first = router.register();
+        final EventRouter.Route second = router.register();
+
+        final Events firstEvents = new Events();
+        final Events secondEvents = new Events();
+        first.eventSource().subscribe(firstEvents);
+        second.eventSource().subscribe(secondEvents);
+
+        final EventDispatcher<Activity> firstDispatcher = first.dispatcher(new TestDispatcher(activity, application));
+        final EventDispatcher<Activity> secondDispatcher = second.dispatcher(new TestDispatcher(activity, application));
+
+        firstDispatcher.startActivityForResult(new Intent(), RequestCode.MAX);
+        secondDispatcher.startActivityForResult(new Intent(), 7);
+        firstDispatcher.requestPermission("permission", 42);
+
+        assertEquals(3, activity.requestCodes.size());
+
+        for (int requestCode : activity.requestCodes) {
+            assertTrue(router.onActivityResult(requestCode, Activity.RESULT_OK, null));
+        }
+
+        assertEquals(2, firstEvents.requestCodes.size());
+        assertEquals(RequestCode.MAX, (int) firstEvents.requestCodes.get(0));
+        assertEquals(42, (int) firstEvents.requestCodes.get(1));
+
+        assertEquals(1, secondEvents.requestCodes.size());
+        assertEquals(7, (int) secondEvents.requestCodes.get(0));
+    }
+
+    @Test
+    public void same_request_code_is_encoded_once() {
+
+        final EventDispatcher<Activity> dispatcher = router.register().dispatcher(new TestDispatcher(activity, application));
+        dispatcher.startActivityForResult(new Intent(), 3);
+        dispatcher.startActivityForResult(new Intent(), 3);
+
+        assertEquals(activity.requestCodes.get(0), activity.requestCodes.get(1));
+    }
+
+    @Test
+    public void not_routed_request_codes_are_not_consumed() {
+
+        final EventRouter.Route route = router.register();
+        route.dispatcher(new TestDispatcher(activity, application)).startActivityForResult(new Intent(), 1);
+
+        // own request code of activity
+        assertFalse(router.onActivityResult(1, Activity.RESULT_OK, null));
+        // routed, but not dispatched by the route
+        assertFalse(router.onActivityResult(activity.requestCodes.get(0) + 1, Activity.RESULT_OK, null));
+        // does not fit in 16 bits
+        assertFalse(router.onActivityResult(activity.requestCodes.get(0) | 0x10000, Activity.RESULT_OK, null));
+
+        route.unregister();
+        assertFalse(router.onActivityResult(activity.requestCodes.get(0), Activity.RESULT_OK, null));
+    }
+
+    @Test
+    public void maximum_routes() {
+
+        for (int i = 0; i < EventRouter.MAX_ROUTES; i++) {
+            router.register().dispatcher(new TestDispatcher(activity, application)).startActivityForResult(new Intent(), i);
+        }
+
+        try {
+            router.register();
+            fail();
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Maximum number of routes"));
+        }
+    }
+
+    @Test
+    public void maximum_request_codes_of_route() {
+
+        final EventDispatcher<Activity> dispatcher = router.register().dispatcher(new TestDispatcher(activity, application));
+        for (int i = 0; i < 256; i++) {
+            dispatcher.startActivityForResult(new Intent(), i);
+        }
+
+        try {
+            dispatcher.startActivityForResult(new Intent(), 256);
+            fail();
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Maximum number of distinct request codes"));
+        }
+    }
+
+    // validates request codes like support FragmentActivity does
+    private static class SupportActivity extends Activity {
+
+        final List<Integer> requestCodes = new ArrayList<>();
+
+        @Override
+        public void startActivityForResult(Intent intent, int requestCode) {
+            add(requestCode);
+        }
+
+        @Override
+        public void requestPermissions(String[] permissions, int requestCode) {
+            add(requestCode);
+        }
+
+        private void add(int requestCode) {
+            if ((requestCode & 0xffff0000) != 0) {
+                throw new IllegalArgumentException("Can only use lower 16 bits for requestCode");
+            }
+            requestCodes.add(requestCode);
+        }
+    }
+
+    private static class Events implements EventSource.Listener {
+
+        final List<Integer> requestCodes = new ArrayList<>();
+
+        @Override
+        public boolean onActivityResult(int requestCode, int resultCode, Intent data) {
+            requestCodes.add(requestCode);
+            return true;
+        }
+
+        @Override
+        public boolean onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
+            requestCodes.add(requestCode);
+            return true;
+        }
+    }
+}
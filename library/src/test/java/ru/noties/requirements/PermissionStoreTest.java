@@ -0,0 +1,108 @@
+package ru.noties.requirements;
+
+import android.app.Activity;
+import android.content.pm.PackageManager;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PermissionStoreTest {
+
+    // the store is process-wide, so each test uses its own permission
+    private final PermissionStore store = PermissionStore.instance();
+
+    @Test
+    public void denied_is_not_stored() {
+
+        final String permission = "test.permission.DENIED";
+
+        store.put(permission, false);
+        assertFalse(store.isGranted(permission));
+
+        store.put(permission, true);
+        assertTrue(store.isGranted(permission));
+    }
+
+    @Test
+    public void update_from_permissions_result() {
+
+        final String granted = "test.permission.UPDATE_GRANTED";
+        final String denied = "test.permission.UPDATE_DENIED";
+
+        store.update(
+                new String[]{granted, denied},
+                new int[]{PackageManager.PERMISSION_GRANTED, PackageManager.PERMISSION_DENIED}
+        );
+
+        assertTrue(store.isGranted(granted));
+        assertFalse(store.isGranted(denied));
+    }
+
+    @Test
+    public void notified_only_when_granted_state_is_lost() {
+
+        final String permission = "test.permission.NOTIFY";
+
+        final TestCase permissionCase = new TestCase(permission);
+        store.register(permissionCase);
+
+        store.put(permission, false);
+        store.put(permission, true);
+        store.put(permission, true);
+        assertEquals(0, permissionCase.changes);
+
+        store.put(permission, false);
+        assertEquals(1, permissionCase.changes);
+
+        store.put(permission, false);
+        assertEquals(1, permissionCase.changes);
+    }
+
+    @Test
+    public void registered_when_added_to_built_requirement() {
+
+        final String permission = "test.permission.REGISTER";
+
+        final TestCase permissionCase = new TestCase(permission);
+
+        // not registered by constructor
+        store.put(permission, true);
+        store.put(permission, false);
+        assertEquals(0, permissionCase.changes);
+
+        final Activity activity = new Activity();
+        RequirementBuilder.create(new TestDispatcher(activity, new TestApplication()), EventSource.create())
+                .add(permissionCase)
+                .build();
+
+        // registering the same case again has no effect
+        store.register(permissionCase);
+
+        store.put(permission, true);
+        store.put(permission, false);
+        assertEquals(1, permissionCase.changes);
+    }
+
+    private static class TestCase extends PermissionCase<Object> {
+
+        int changes;
+
+        TestCase(String permission) {
+            super(permission);
+        }
+
+        @Override
+        protected void showPermissionRationale() {
+            throw new AssertionError();
+        }
+
+        @Override
+        protected void notifyChanged() {
+            changes += 1;
+            super.notifyChanged();
+        }
+    }
+}
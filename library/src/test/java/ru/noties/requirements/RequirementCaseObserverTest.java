@@ -0,0 +1,137 @@
+package ru.noties.requirements;
+
+import android.support.annotation.NonNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RequirementCaseObserverTest {
+
+    @Test
+    public void notify_without_observers() {
+        new TestCase().notifyChanged();
+    }
+
+    @Test
+    public void observers_are_notified_until_removed() {
+
+        final TestCase requirementCase = new TestCase();
+        final RecordingObserver first = new RecordingObserver();
+        final RecordingObserver second = new RecordingObserver();
+
+        requirementCase.addObserver(first);
+        requirementCase.addObserver(second);
+        requirementCase.notifyChanged();
+
+        requirementCase.removeObserver(first);
+        requirementCase.notifyChanged();
+
+        requirementCase.removeObserver(second);
+        requirementCase.notifyChanged();
+
+        assertEquals(1, first.changes.size());
+        assertEquals(2, second.changes.size());
+        assertEquals(requirementCase, second.changes.get(0));
+    }
+
+    @Test
+    public void observer_added_on_one_thread_is_notified_from_another() throws InterruptedException {
+
+        final TestCase requirementCase = new TestCase();
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        requirementCase.addObserver(new RequirementCase.Observer() {
+            @Override
+            public void onRequirementCaseChanged(@NonNull RequirementCase requirementCase) {
+                latch.countDown();
+            }
+        });
+
+        final Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                requirementCase.notifyChanged();
+            }
+        });
+        thread.start();
+
+        assertTrue(latch.await(5L, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void observer_can_remove_itself_whilst_notified() {
+
+        final TestCase requirementCase = new TestCase();
+        final RecordingObserver other = new RecordingObserver();
+
+        requirementCase.addObserver(new RequirementCase.Observer() {
+            @Override
+            public void onRequirementCaseChanged(@NonNull RequirementCase requirementCase) {
+                requirementCase.removeObserver(this);
+            }
+        });
+        requirementCase.addObserver(other);
+
+        requirementCase.notifyChanged();
+        requirementCase.notifyChanged();
+
+        assertEquals(2, other.changes.size());
+    }
+
+    @Test
+    public void first_observer_starts_observation() {
+
+        final TestCase requirementCase = new TestCase();
+        assertEquals(0, requirementCase.observed);
+
+        final RecordingObserver first = new RecordingObserver();
+        requirementCase.addObserver(first);
+        requirementCase.addObserver(new RecordingObserver());
+        assertEquals(1, requirementCase.observed);
+
+        requirementCase.removeObserver(first);
+        requirementCase.addObserver(first);
+        assertEquals(1, requirementCase.observed);
+    }
+
+    private static class TestCase extends RequirementCase<Object> {
+
+        int observed;
+
+        @Override
+        protected void onObserved() {
+            observed += 1;
+        }
+
+        @Override
+        public boolean meetsRequirement() {
+            return true;
+        }
+
+        @Override
+        public void startResolution() {
+        }
+
+        @Override
+        public boolean isObservable() {
+            return true;
+        }
+    }
+
+    private static class RecordingObserver implements RequirementCase.Observer {
+
+        final List<RequirementCase> changes = new ArrayList<>();
+
+        @Override
+        public void onRequirementCaseChanged(@NonNull RequirementCase requirementCase) {
+            changes.add(requirementCase);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package ru.noties.requirements;
+
+import android.app.Activity;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A session of a requirement with {@link VirtualTimeScheduler} as both main and background
+ * scheduler: all engine work is executed on the test thread and only when virtual time is advanced
+ */
+public class RequirementSchedulerTest {
+
+    private final TestApplication application = new TestApplication();
+    private final Activity activity = new Activity();
+    private final EventSource eventSource = EventSource.create();
+    private final VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+    private final ResultListener listener = new ResultListener();
+
+    @Test
+    public void retries_follow_virtual_time() {
+
+        // satisfied on the second retry
+        final FlakyCase flakyCase = new FlakyCase(2);
+
+        requirement(flakyCase).validate(listener);
+
+        assertEquals(1, flakyCase.checks);
+        assertEquals(0, listener.results());
+
+        scheduler.advanceBy(99L);
+        assertEquals(1, flakyCase.checks);
+
+        scheduler.advanceBy(1L);
+        assertEquals(2, flakyCase.checks);
+        assertEquals(0, listener.results());
+
+        scheduler.advanceBy(100L);
+        assertEquals(3, flakyCase.checks);
+        assertEquals(1, listener.successes);
+        assertEquals(0, scheduler.pendingCount());
+    }
+
+    @Test
+    public void result_from_other_thread_is_executed_with_main_scheduler() throws InterruptedException {
+
+        final ThreadCase threadCase = new ThreadCase();
+
+        requirement(threadCase).validate(listener);
+
+        threadCase.thread.join();
+
+        // posted, not delivered on the thread of the case
+        assertEquals(0, listener.results());
+
+        assertEquals(1, scheduler.runPending());
+        assertEquals(1, listener.successes);
+        assertEquals(Thread.currentThread(), listener.thread);
+    }
+
+    @Test
+    public void posted_result_after_cancel_is_ignored() throws InterruptedException {
+
+        final ThreadCase threadCase = new ThreadCase();
+
+        final Requirement requirement = requirement(threadCase);
+        requirement.validate(listener);
+
+        threadCase.thread.join();
+
+        requirement.cancel();
+        assertEquals(1, listener.failures);
+
+        scheduler.runPending();
+        assertEquals(0, listener.successes);
+        assertEquals(1, listener.failures);
+    }
+
+    @Test
+    public void warm_up_is_executed_with_main_scheduler() {
+
+        final FlakyCase flakyCase = new FlakyCase(0);
+        final Requirement requirement = requirement(flakyCase);
+
+        requirement.warmUp();
+        assertEquals(0, flakyCase.checks);
+
+        scheduler.runPending();
+        assertEquals(1, flakyCase.checks);
+
+        // result of warm up check is used
+        requirement.validate(listener);
+        assertEquals(1, flakyCase.checks);
+        assertEquals(1, listener.successes);
+    }
+
+    @Test
+    public void warm_session_reports_progress() {
+
+        final FlakyCase first = new FlakyCase(0);
+        final FlakyCase second = new FlakyCase(0);
+        final Requirement requirement = RequirementBuilder.create(new TestDispatcher(activity, application), eventSource)
+                .add(first)
+                .add(second)
+                .mainScheduler(scheduler)
+                .backgroundScheduler(scheduler)
+                .build();
+
+        requirement.warmUp();
+        scheduler.runPending();
+        assertEquals(1, first.checks);
+        assertEquals(1, second.checks);
+
+        final ProgressRecorder progress = new ProgressRecorder();
+        requirement.validate(progress);
+
+        // not checked again, but each case is reported
+        assertEquals(1, first.checks);
+        assertEquals(1, second.checks);
+        assertEquals(2, progress.entered);
+        assertEquals(2, progress.satisfied);
+        assertEquals(1, progress.successes);
+    }
+
+    @Test
+    public void check_of_disposed_requirement_fails_with_illegal_state() {
+
+        final Requirement requirement = requirement(new FlakyCase(0));
+
+        application.destroy(activity);
+
+        try {
+            requirement.isValid();
+            throw new AssertionError();
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("disposed"));
+        }
+    }
+
+    private Requirement requirement(RequirementCase<Object> requirementCase) {
+        return RequirementBuilder.create(new TestDispatcher(activity, application), eventSource)
+                .add(requirementCase)
+                .mainScheduler(scheduler)
+                .backgroundScheduler(scheduler)
+                .build();
+    }
+
+    private static class FlakyCase extends RequirementCase<Object> {
+
+        private final int failures;
+
+        volatile int checks;
+
+        FlakyCase(int failures) {
+            this.failures = failures;
+        }
+
+        @Override
+        public boolean meetsRequirement() {
+            return ++checks > failures;
+        }
+
+        @Override
+        public void startResolution() {
+            throw new AssertionError();
+        }
+
+        @Nullable
+        @Override
+        public RetryPolicy retryPolicy() {
+            return RetryPolicy.create(3, 100L, 1.F, 100L, .0F);
+        }
+    }
+
+    // delivers its result from another thread
+    private static class ThreadCase extends RequirementCase<Object> {
+
+        Thread thread;
+
+        @Override
+        public boolean meetsRequirement() {
+            return false;
+        }
+
+        @Override
+        public void startResolution() {
+            thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    deliverResult(true);
+                }
+            });
+            thread.start();
+        }
+    }
+
+    private static class ProgressRecorder extends ResultListener implements Requirement.ProgressListener {
+
+        int entered;
+        int satisfied;
+
+        @Override
+        public void onCaseEntered(@NonNull RequirementCase<?> requirementCase, int remaining) {
+            entered += 1;
+        }
+
+        @Override
+        public void onCaseSatisfied(@NonNull RequirementCase<?> requirementCase, int remaining) {
+            satisfied += 1;
+        }
+
+        @Override
+        public void onCaseResolved(@NonNull RequirementCase<?> requirementCase, int remaining) {
+            throw new AssertionError();
+        }
+    }
+
+    private static class ResultListener implements Requirement.Listener {
+
+        int successes;
+        int failures;
+        Thread thread;
+
+        int results() {
+            return successes + failures;
+        }
+
+        @Override
+        public void onRequirementSuccess() {
+            successes += 1;
+            thread = Thread.currentThread();
+        }
+
+        @Override
+        public void onRequirementFailure(@Nullable Payload payload) {
+            failures += 1;
+            thread = Thread.currentThread();
+        }
+    }
+}
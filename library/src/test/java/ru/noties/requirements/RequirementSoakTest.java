@@ -0,0 +1,209 @@
+package ru.noties.requirements;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs build/validate/destroy cycles and checks that neither requirements, nor their dispatchers,
+ * nor long-lived objects they are registered with (cases, EventSource, registries) keep destroyed
+ * activities or requirements reachable (sampled weak references are cleared)
+ */
+public class RequirementSoakTest {
+
+    private static final int CYCLES = 100000;
+
+    // every N-th activity and requirement is checked to be garbage collected
+    private static final int SAMPLE_EVERY = 1000;
+
+    // attempts to run garbage collection until sampled references are cleared
+    private static final int GC_ATTEMPTS = 20;
+
+    // a long-lived holder (for example a singleton cache) of the most recent requirements
+    private static final int CACHE_SIZE = 64;
+
+    private static final int REQUEST_CODE = 1;
+
+    // objects that outlive all activities (fields, so they stay reachable until references are checked)
+    private final TestApplication application = new TestApplication();
+    private final ObservableCase shared = new ObservableCase();
+    private final EventSource eventSource = EventSource.create();
+    private final Requirement[] cache = new Requirement[CACHE_SIZE];
+
+    @Test
+    public void build_validate_destroy_cycles_do_not_leak() {
+
+        final List<WeakReference<?>> sampled = new ArrayList<>();
+
+        final ResultListener listener = new ResultListener();
+
+        final int callbacks = application.callbacks.size();
+
+        for (int i = 0; i < CYCLES; i++) {
+
+            final Activity activity = new Activity();
+
+            final Requirement requirement = RequirementBuilder
+                    .create(new TestDispatcher(activity, application), eventSource)
+                    .add(shared)
+                    .add(new TestPermissionCase())
+                    .add(new ResolvingCase())
+                    .build();
+
+            cache[i % CACHE_SIZE] = requirement;
+
+            // sampled requirements are evicted from the cache long before the end
+            if (i % SAMPLE_EVERY == 0 && i < CYCLES - CACHE_SIZE) {
+                sampled.add(new WeakReference<>(activity));
+                sampled.add(new WeakReference<>(requirement));
+            }
+
+            requirement.validate(listener);
+
+            // every other activity is destroyed whilst resolution is in progress
+            if (i % 2 == 0) {
+                eventSource.onActivityResult(REQUEST_CODE, Activity.RESULT_OK, null);
+            }
+
+            application.destroy(activity);
+        }
+
+        assertEquals(CYCLES / 2, listener.successes);
+        assertEquals(0, listener.failures);
+
+        // no callbacks of destroyed activities are left
+        assertEquals(callbacks, application.callbacks.size());
+
+        assertTrue(RequirementRegistry.requirements().isEmpty());
+
+        awaitCleared(sampled);
+
+        for (WeakReference<?> reference : sampled) {
+            assertNull("Leaked: " + reference.get(), reference.get());
+        }
+    }
+
+    @Test
+    public void cached_dispatcher_does_not_keep_activity() {
+
+        Activity activity = new Activity();
+        final WeakReference<Activity> reference = new WeakReference<>(activity);
+
+        final EventDispatcher<Activity> dispatcher = EventDispatcher.create(activity);
+
+        //noinspection UnusedAssignment
+        activity = null;
+
+        awaitCleared(Collections.<WeakReference<?>>singletonList(reference));
+
+        assertNull(reference.get());
+
+        try {
+            dispatcher.activity();
+            throw new AssertionError();
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("garbage collected"));
+        }
+    }
+
+    // a leak keeps references forever, so attempts only make the test robust to a lazy collector
+    private static void awaitCleared(@NonNull List<WeakReference<?>> references) {
+        for (int i = 0; i < GC_ATTEMPTS && !isCleared(references); i++) {
+            System.gc();
+            try {
+                Thread.sleep(10L);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private static boolean isCleared(@NonNull List<WeakReference<?>> references) {
+        for (WeakReference<?> reference : references) {
+            if (reference.get() != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class ObservableCase extends RequirementCase<Object> {
+
+        @Override
+        public boolean meetsRequirement() {
+            return true;
+        }
+
+        @Override
+        public void startResolution() {
+            throw new AssertionError();
+        }
+
+        @Override
+        public boolean isObservable() {
+            return true;
+        }
+    }
+
+    private static class TestPermissionCase extends PermissionCase<Object> {
+
+        TestPermissionCase() {
+            super("test.permission");
+        }
+
+        @Override
+        protected void showPermissionRationale() {
+            throw new AssertionError();
+        }
+    }
+
+    private static class ResolvingCase extends RequirementCase<Object> {
+
+        @Override
+        public boolean meetsRequirement() {
+            return false;
+        }
+
+        @Override
+        public void startResolution() {
+            startActivityForResult(new Intent(), REQUEST_CODE);
+        }
+
+        @Override
+        public boolean onActivityResult(int requestCode, int resultCode, Intent data) {
+            if (REQUEST_CODE == requestCode) {
+                deliverResult(Activity.RESULT_OK == resultCode);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static class ResultListener implements Requirement.Listener {
+
+        int successes;
+        int failures;
+
+        @Override
+        public void onRequirementSuccess() {
+            successes += 1;
+        }
+
+        @Override
+        public void onRequirementFailure(@Nullable Payload payload) {
+            failures += 1;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package ru.noties.requirements;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// SystemClock.elapsedRealtime returns 0 in unit tests, so all entries are fresh
+public class SharedStateImplTest {
+
+    private static final long BOOT_TIME = 1500000000000L;
+    private static final long LAUNCH = 4200L;
+
+    private static final int HEADER_SIZE = 24;
+    private static final int SLOT_SIZE = 48;
+    private static final int SLOTS = 64;
+
+    private File file;
+
+    @Before
+    public void before() throws IOException {
+        file = File.createTempFile("shared-state", null);
+    }
+
+    @After
+    public void after() {
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+    }
+
+    @Test
+    public void set_and_clear() throws IOException {
+
+        final SharedStateImpl state = new SharedStateImpl(file, BOOT_TIME, LAUNCH);
+
+        assertFalse(state.isSatisfied("key", 1000L));
+
+        state.setSatisfied("key", true);
+        assertTrue(state.isSatisfied("key", 1000L));
+        assertFalse(state.isSatisfied("other", 1000L));
+
+        state.setSatisfied("key", false);
+        assertFalse(state.isSatisfied("key", 1000L));
+    }
+
+    @Test
+    public void clear_of_unknown_key_keeps_slot() throws IOException {
+
+        final SharedStateImpl state = new SharedStateImpl(file, BOOT_TIME, LAUNCH);
+
+        state.setSatisfied("key", true);
+        state.setSatisfied("other", false);
+
+        assertTrue(state.isSatisfied("key", 1000L));
+    }
+
+    @Test
+    public void state_is_kept_during_a_boot() throws IOException {
+
+        new SharedStateImpl(file, BOOT_TIME, LAUNCH).setSatisfied("key", true);
+
+        // boot time derived from wall clock drifts slightly
+        assertTrue(new SharedStateImpl(file, BOOT_TIME + 50L, LAUNCH).isSatisfied("key", 1000L));
+    }
+
+    @Test
+    public void state_of_previous_boot_is_discarded() throws IOException {
+
+        new SharedStateImpl(file, BOOT_TIME, LAUNCH).setSatisfied("key", true);
+
+        assertFalse(new SharedStateImpl(file, BOOT_TIME + 60L * 60L * 1000L, LAUNCH).isSatisfied("key", 1000L));
+    }
+
+    @Test
+    public void state_of_previous_launch_is_discarded() throws IOException {
+
+        new SharedStateImpl(file, BOOT_TIME, LAUNCH).setSatisfied("key", true);
+
+        // all processes were restarted
+        assertFalse(new SharedStateImpl(file, BOOT_TIME, LAUNCH + 1L).isSatisfied("key", 1000L));
+    }
+
+    @Test
+    public void slot_of_other_launch_is_not_trusted() throws IOException {
+
+        final SharedStateImpl previous = new SharedStateImpl(file, BOOT_TIME, LAUNCH);
+        final SharedStateImpl current = new SharedStateImpl(file, BOOT_TIME, LAUNCH + 1L);
+
+        previous.setSatisfied("key", true);
+
+        assertTrue(previous.isSatisfied("key", 1000L));
+        assertFalse(current.isSatisfied("key", 1000L));
+    }
+
+    @Test
+    public void slot_that_is_being_written_is_not_trusted() throws IOException {
+
+        final SharedStateImpl state = new SharedStateImpl(file, BOOT_TIME, LAUNCH);
+        state.setSatisfied("key", true);
+
+        // odd sequence
+        updateSlots(0, 1L);
+        assertFalse(state.isSatisfied("key", 1000L));
+
+        // writer was killed, next write recovers the slot
+        state.setSatisfied("key", true);
+        assertTrue(state.isSatisfied("key", 1000L));
+    }
+
+    @Test
+    public void torn_slot_is_not_trusted() throws IOException {
+
+        final SharedStateImpl state = new SharedStateImpl(file, BOOT_TIME, LAUNCH);
+        state.setSatisfied("key", true);
+
+        // timestamp is changed without checksum
+        updateSlots(24, 1L);
+        assertFalse(state.isSatisfied("key", 1000L));
+    }
+
+    @Test
+    public void state_is_shared_between_instances() throws IOException {
+
+        final SharedStateImpl first = new SharedStateImpl(file, BOOT_TIME, LAUNCH);
+        final SharedStateImpl second = new SharedStateImpl(file, BOOT_TIME, LAUNCH);
+
+        first.setSatisfied("key", true);
+        assertTrue(second.isSatisfied("key", 1000L));
+
+        second.setSatisfied("key", false);
+        assertFalse(first.isSatisfied("key", 1000L));
+    }
+
+    @Test
+    public void parse_start_time() {
+        final String stat = "1234 (my (app) name) S 1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 16 17 18 424242 19 20";
+        assertEquals(424242L, SharedStateImpl.parseStartTime(stat));
+        assertEquals(-1L, SharedStateImpl.parseStartTime(null));
+        assertEquals(-1L, SharedStateImpl.parseStartTime("1234 (app)"));
+        assertEquals(-1L, SharedStateImpl.parseStartTime("1234 (app) S 1 2"));
+    }
+
+    @Test
+    public void file_of_previous_format_is_reset() throws IOException {
+
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.writeInt(0x52515332);
+            randomAccessFile.setLength(16 + 64 * 24);
+        } finally {
+            randomAccessFile.close();
+        }
+
+        final SharedStateImpl state = new SharedStateImpl(file, BOOT_TIME, LAUNCH);
+        assertFalse(state.isSatisfied("key", 1000L));
+
+        state.setSatisfied("key", true);
+        assertTrue(state.isSatisfied("key", 1000L));
+    }
+
+    // sets a field of each slot (directly in the file, mapping of the file reflects the change)
+    private void updateSlots(int offset, long value) throws IOException {
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            for (int i = 0; i < SLOTS; i++) {
+                randomAccessFile.seek(HEADER_SIZE + i * SLOT_SIZE + offset);
+                randomAccessFile.writeLong(value);
+            }
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ru.noties.requirements;
+
+import android.app.Activity;
+import android.app.Application;
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Application that keeps registered lifecycle callbacks, so tests can destroy an activity
+class TestApplication extends Application {
+
+    final List<ActivityLifecycleCallbacks> callbacks = new ArrayList<>();
+
+    @Override
+    public void registerActivityLifecycleCallbacks(ActivityLifecycleCallbacks callback) {
+        callbacks.add(callback);
+    }
+
+    @Override
+    public void unregisterActivityLifecycleCallbacks(ActivityLifecycleCallbacks callback) {
+        callbacks.remove(callback);
+    }
+
+    void destroy(@NonNull Activity activity) {
+        for (ActivityLifecycleCallbacks callback : new ArrayList<>(callbacks)) {
+            callback.onActivityDestroyed(activity);
+        }
+    }
+}
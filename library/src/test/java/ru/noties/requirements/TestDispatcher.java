@@ -0,0 +1,32 @@
+package ru.noties.requirements;
+
+import android.app.Activity;
+import android.app.Application;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+import java.util.Map;
+
+// Activity dispatcher for JVM tests (Activity#getApplication is final and returns null)
+class TestDispatcher extends EventDispatcherActivity<Activity> {
+
+    private final Application application;
+
+    TestDispatcher(@NonNull Activity activity, @NonNull Application application) {
+        super(activity);
+        this.application = application;
+    }
+
+    @NonNull
+    @Override
+    Application application() {
+        return application;
+    }
+
+    // there is no PackageManager on JVM
+    @Nullable
+    @Override
+    public Map<String, Boolean> checkSelfPermissions() {
+        return null;
+    }
+}
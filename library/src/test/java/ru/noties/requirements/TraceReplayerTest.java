@@ -0,0 +1,218 @@
+package ru.noties.requirements;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.support.annotation.Nullable;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TraceReplayerTest {
+
+    private final TestApplication application = new TestApplication();
+    private final Activity activity = new Activity();
+    private final EventSource eventSource = EventSource.create();
+    private final VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final TraceRecorder recorder = TraceRecorder.create(out);
+
+    @Test
+    public void replay_of_shared_recorder() throws IOException {
+
+        final ActivityCase activityCase = new ActivityCase();
+        final Requirement first = requirement(new SimpleCase(true), activityCase);
+        final Requirement second = requirement(new SimpleCase(true));
+
+        final ResultListener listener = new ResultListener();
+
+        // resolved with an activity result
+        first.validate(listener);
+        scheduler.runPending();
+
+        // satisfied from a warm up snapshot whilst the first one is resolving
+        second.warmUp();
+        scheduler.runPending();
+        second.validate(listener);
+
+        // idle, must not record anything
+        second.cancel();
+
+        eventSource.onActivityResult(ActivityCase.REQUEST_CODE, Activity.RESULT_OK, null);
+        scheduler.runPending();
+
+        // satisfied
+        first.validate(listener);
+        scheduler.runPending();
+
+        // cancelled during resolution
+        activityCase.satisfied = false;
+        first.validate(listener);
+        scheduler.runPending();
+        first.cancel();
+
+        assertEquals(3, listener.successes);
+        assertEquals(1, listener.failures);
+
+        recorder.close();
+
+        final Trace trace = Trace.read(new ByteArrayInputStream(out.toByteArray()));
+
+        // each result is delivered in a session of its requirement
+        final Set<Integer> open = new HashSet<>();
+        int started = 0;
+        int delivered = 0;
+        for (Trace.Event event : trace.events()) {
+            if (event.type() == Trace.SESSION_STARTED) {
+                assertTrue(open.add(event.requirement()));
+                started += 1;
+            } else if (event.type() == Trace.RESULT_DELIVERED) {
+                assertTrue(open.remove(event.requirement()));
+                delivered += 1;
+            }
+        }
+        assertEquals(4, started);
+        assertEquals(4, delivered);
+
+        final TraceReplayer.Result result = TraceReplayer.replay(trace);
+        assertEquals(4, result.sessions());
+        assertEquals(0, result.mismatches());
+    }
+
+    @Test
+    public void mismatch() throws IOException {
+
+        final int requirement = recorder.register();
+        recorder.record(requirement, Trace.SESSION_STARTED, 1, 0);
+        recorder.recordCheck(requirement, Trace.CHECK, 0, true, 0L);
+        // all cases are satisfied, but failure is recorded
+        recorder.record(requirement, Trace.RESULT_DELIVERED, 0, 0);
+        recorder.close();
+
+        final TraceReplayer.Result result = TraceReplayer.replay(read());
+        assertEquals(1, result.sessions());
+        assertEquals(1, result.mismatches());
+    }
+
+    @Test
+    public void events_before_session_are_skipped() throws IOException {
+
+        final int idle = recorder.register();
+        final int requirement = recorder.register();
+        recorder.recordActivityResult(idle, 1, Activity.RESULT_OK);
+        recorder.record(idle, Trace.CASE_RESULT, 3, 1);
+        recorder.record(requirement, Trace.SESSION_STARTED, 1, 0);
+        recorder.recordCheck(requirement, Trace.CHECK, 0, false, 0L);
+        recorder.record(requirement, Trace.CASE_ENTERED, 0, 0);
+        recorder.record(requirement, Trace.RESOLUTION_STARTED, 0, 0);
+        recorder.record(requirement, Trace.CASE_RESULT, 0, 0);
+        recorder.record(requirement, Trace.RESULT_DELIVERED, 0, 0);
+        recorder.close();
+
+        final TraceReplayer.Result result = TraceReplayer.replay(read());
+        assertEquals(1, result.sessions());
+        assertEquals(0, result.mismatches());
+    }
+
+    @Test
+    public void no_session() throws IOException {
+
+        recorder.recordActivityResult(recorder.register(), 1, Activity.RESULT_OK);
+        recorder.close();
+
+        try {
+            TraceReplayer.replay(read());
+            fail();
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("does not contain a session"));
+        }
+    }
+
+    private Trace read() throws IOException {
+        return Trace.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @SafeVarargs
+    private final Requirement requirement(RequirementCase<Object>... cases) {
+        final RequirementBuilder<Activity> builder = RequirementBuilder.create(new TestDispatcher(activity, application), eventSource);
+        for (RequirementCase<Object> requirementCase : cases) {
+            builder.add(requirementCase);
+        }
+        return builder
+                .mainScheduler(scheduler)
+                .backgroundScheduler(scheduler)
+                .trace(recorder)
+                .build();
+    }
+
+    private static class SimpleCase extends RequirementCase<Object> {
+
+        private final boolean satisfied;
+
+        SimpleCase(boolean satisfied) {
+            this.satisfied = satisfied;
+        }
+
+        @Override
+        public boolean meetsRequirement() {
+            return satisfied;
+        }
+
+        @Override
+        public void startResolution() {
+            throw new AssertionError();
+        }
+    }
+
+    // resolved when activity result is received
+    private static class ActivityCase extends RequirementCase<Object> {
+
+        static final int REQUEST_CODE = 5;
+
+        volatile boolean satisfied;
+
+        @Override
+        public boolean meetsRequirement() {
+            return satisfied;
+        }
+
+        @Override
+        public void startResolution() {
+            // activity is not started on JVM, its result is supplied by the test
+        }
+
+        @Override
+        public boolean onActivityResult(int requestCode, int resultCode, Intent data) {
+            if (requestCode == REQUEST_CODE) {
+                satisfied = resultCode == Activity.RESULT_OK;
+                deliverResult(satisfied);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static class ResultListener implements Requirement.Listener {
+
+        int successes;
+        int failures;
+
+        @Override
+        public void onRequirementSuccess() {
+            successes += 1;
+        }
+
+        @Override
+        public void onRequirementFailure(@Nullable Payload payload) {
+            failures += 1;
+        }
+    }
+}
@@ -9,13 +9,14 @@ import android.provider.Settings;
 import android.support.annotation.NonNull;
 
 import ru.noties.requirements.Flag;
-import ru.noties.requirements.RequestCode;
+import ru.noties.requirements.GenerateRequestCode;
 import ru.noties.requirements.RequirementCase;
 import ru.noties.requirements.sample.R;
 
+@GenerateRequestCode
 public class LocationServicesCase extends RequirementCase<Activity> {
 
-    private static final int REQUEST_CODE = RequestCode.createRequestCode(LocationServicesCase.class);
+    private static final int REQUEST_CODE = RequirementRequestCodes.LOCATION_SERVICES_CASE;
 
     @Override
     public boolean meetsRequirement() {
@@ -50,6 +51,12 @@ public class LocationServicesCase extends RequirementCase<Activity> {
                 .show();
     }
 
+    @Override
+    public String identityKey() {
+        // stateless, so all instances of this case are equal
+        return getClass().getName();
+    }
+
     @Override
     public boolean onActivityResult(int requestCode, int resultCode, Intent data) {
         if (REQUEST_CODE == requestCode) {
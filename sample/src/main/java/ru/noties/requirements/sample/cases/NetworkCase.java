@@ -10,19 +10,28 @@ import android.provider.Settings;
 import android.support.annotation.NonNull;
 
 import ru.noties.requirements.Flag;
-import ru.noties.requirements.RequestCode;
+import ru.noties.requirements.GenerateRequestCode;
 import ru.noties.requirements.RequirementCase;
+import ru.noties.requirements.RetryPolicy;
 import ru.noties.requirements.sample.R;
 
+@GenerateRequestCode
 public class NetworkCase extends RequirementCase<Activity> {
 
-    private static final int REQUEST_CODE = RequestCode.createRequestCode(NetworkCase.class);
+    private static final int REQUEST_CODE = RequirementRequestCodes.NETWORK_CASE;
 
     @Override
     public boolean meetsRequirement() {
         return hasConnection(appContext());
     }
 
+    @Override
+    public RetryPolicy retryPolicy() {
+        // connection can be briefly lost (for example during Wi-Fi handover),
+        // so give it a chance to be re-established before bothering user
+        return RetryPolicy.exponential(3, 250L);
+    }
+
     @Override
     public void startResolution() {
 
@@ -56,6 +65,12 @@ public class NetworkCase extends RequirementCase<Activity> {
                 .show();
     }
 
+    @Override
+    public String identityKey() {
+        // stateless, so all instances of this case are equal
+        return getClass().getName();
+    }
+
     @Override
     public boolean onActivityResult(int requestCode, int resultCode, Intent data) {
         if (REQUEST_CODE == requestCode) {
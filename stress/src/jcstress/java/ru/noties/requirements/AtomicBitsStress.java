@@ -0,0 +1,94 @@
+package ru.noties.requirements;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.ZZZ_Result;
+import org.openjdk.jcstress.infra.results.ZZ_Result;
+
+/**
+ * Concurrency tests of {@link AtomicBits}: bits of the same word are updated by different threads
+ * (satisfied state of cases is updated from main and background threads)
+ */
+public class AtomicBitsStress {
+
+    @JCStressTest
+    @Outcome(id = "true, true, true", expect = Expect.ACCEPTABLE, desc = "Both bits are set")
+    @Outcome(expect = Expect.FORBIDDEN, desc = "Update of another thread is lost")
+    @State
+    public static class SetSet {
+
+        private final AtomicBits bits = new AtomicBits(2);
+
+        @Actor
+        public void actor1() {
+            bits.set(0);
+        }
+
+        @Actor
+        public void actor2() {
+            bits.set(1);
+        }
+
+        @Arbiter
+        public void arbiter(ZZZ_Result r) {
+            r.r1 = bits.get(0);
+            r.r2 = bits.get(1);
+            r.r3 = bits.isFull();
+        }
+    }
+
+    @JCStressTest
+    @Outcome(id = "true, false", expect = Expect.ACCEPTABLE, desc = "First bit is set, second is cleared")
+    @Outcome(expect = Expect.FORBIDDEN, desc = "Update of another thread is lost")
+    @State
+    public static class SetClear {
+
+        private final AtomicBits bits = new AtomicBits(2);
+
+        public SetClear() {
+            bits.set(1);
+        }
+
+        @Actor
+        public void actor1() {
+            bits.set(0);
+        }
+
+        @Actor
+        public void actor2() {
+            bits.clear(1);
+        }
+
+        @Arbiter
+        public void arbiter(ZZ_Result r) {
+            r.r1 = bits.get(0);
+            r.r2 = bits.get(1);
+        }
+    }
+
+    @JCStressTest
+    @Outcome(id = "false, false", expect = Expect.ACCEPTABLE, desc = "Reader is before the writer")
+    @Outcome(id = "false, true", expect = Expect.ACCEPTABLE, desc = "Reader has observed the bit")
+    @Outcome(id = "true, true", expect = Expect.ACCEPTABLE, desc = "Reader is after the writer")
+    @Outcome(id = "true, false", expect = Expect.FORBIDDEN, desc = "Bit must not be unobserved once seen")
+    @State
+    public static class Visibility {
+
+        private final AtomicBits bits = new AtomicBits(65);
+
+        @Actor
+        public void writer() {
+            bits.set(64);
+        }
+
+        @Actor
+        public void reader(ZZ_Result r) {
+            r.r1 = bits.get(64);
+            r.r2 = bits.get(64);
+        }
+    }
+}
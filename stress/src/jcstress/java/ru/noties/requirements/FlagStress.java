@@ -0,0 +1,82 @@
+package ru.noties.requirements;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.ZZ_Result;
+import org.openjdk.jcstress.infra.results.Z_Result;
+
+/**
+ * Concurrency tests of {@link Flag#synchronizedFlag()}
+ */
+public class FlagStress {
+
+    @JCStressTest
+    @Outcome(id = "true, false", expect = Expect.ACCEPTABLE, desc = "First actor has marked the flag")
+    @Outcome(id = "false, true", expect = Expect.ACCEPTABLE, desc = "Second actor has marked the flag")
+    @Outcome(expect = Expect.FORBIDDEN, desc = "Exactly one actor must mark the flag")
+    @State
+    public static class MarkIfNotSet {
+
+        private final Flag flag = Flag.synchronizedFlag();
+
+        @Actor
+        public void actor1(ZZ_Result r) {
+            r.r1 = flag.markIfNotSet();
+        }
+
+        @Actor
+        public void actor2(ZZ_Result r) {
+            r.r2 = flag.markIfNotSet();
+        }
+    }
+
+    @JCStressTest
+    @Outcome(id = "true", expect = Expect.ACCEPTABLE, desc = "Flag is marked")
+    @Outcome(expect = Expect.FORBIDDEN, desc = "Mark of another thread is lost")
+    @State
+    public static class MarkAndMarkIfNotSet {
+
+        private final Flag flag = Flag.synchronizedFlag();
+
+        @Actor
+        public void actor1() {
+            flag.mark();
+        }
+
+        @Actor
+        public void actor2() {
+            flag.markIfNotSet();
+        }
+
+        @Arbiter
+        public void arbiter(Z_Result r) {
+            r.r1 = flag.isSet();
+        }
+    }
+
+    @JCStressTest
+    @Outcome(id = "false, false", expect = Expect.ACCEPTABLE, desc = "Reader is before the writer")
+    @Outcome(id = "false, true", expect = Expect.ACCEPTABLE, desc = "Reader has observed the mark")
+    @Outcome(id = "true, true", expect = Expect.ACCEPTABLE, desc = "Reader is after the writer")
+    @Outcome(id = "true, false", expect = Expect.FORBIDDEN, desc = "Mark must not be unobserved once seen")
+    @State
+    public static class Visibility {
+
+        private final Flag flag = Flag.synchronizedFlag();
+
+        @Actor
+        public void writer() {
+            flag.mark();
+        }
+
+        @Actor
+        public void reader(ZZ_Result r) {
+            r.r1 = flag.isSet();
+            r.r2 = flag.isSet();
+        }
+    }
+}
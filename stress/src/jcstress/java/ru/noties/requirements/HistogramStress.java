@@ -0,0 +1,40 @@
+package ru.noties.requirements;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Arbiter;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.JJJ_Result;
+
+/**
+ * Concurrency test of {@link Histogram}: records of multiple threads are not lost
+ */
+@JCStressTest
+@Outcome(id = "2, 5, 2", expect = Expect.ACCEPTABLE, desc = "Both values are recorded")
+@Outcome(expect = Expect.FORBIDDEN, desc = "A record is lost")
+@State
+public class HistogramStress {
+
+    private final Histogram histogram = new Histogram();
+
+    @Actor
+    public void actor1() {
+        histogram.record(2L);
+    }
+
+    @Actor
+    public void actor2() {
+        histogram.record(3L);
+    }
+
+    @Arbiter
+    public void arbiter(JJJ_Result r) {
+        final Histogram.Snapshot snapshot = histogram.snapshot();
+        r.r1 = snapshot.count();
+        r.r2 = snapshot.sum();
+        // both values are in bucket [2, 4)
+        r.r3 = snapshot.bucket(1);
+    }
+}
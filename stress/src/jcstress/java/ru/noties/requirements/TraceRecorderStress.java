@@ -0,0 +1,34 @@
+package ru.noties.requirements;
+
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.II_Result;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Concurrency test of {@link TraceRecorder#register()}: requirements that share a recorder
+ * (and are built on different threads) get different ids
+ */
+@JCStressTest
+@Outcome(id = "0, 1", expect = Expect.ACCEPTABLE, desc = "First actor has registered first")
+@Outcome(id = "1, 0", expect = Expect.ACCEPTABLE, desc = "Second actor has registered first")
+@Outcome(expect = Expect.FORBIDDEN, desc = "Ids must be unique")
+@State
+public class TraceRecorderStress {
+
+    private final TraceRecorder recorder = TraceRecorder.create(new ByteArrayOutputStream());
+
+    @Actor
+    public void actor1(II_Result r) {
+        r.r1 = recorder.register();
+    }
+
+    @Actor
+    public void actor2(II_Result r) {
+        r.r2 = recorder.register();
+    }
+}